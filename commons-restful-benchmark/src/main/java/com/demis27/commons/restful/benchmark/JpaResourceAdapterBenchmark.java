@@ -0,0 +1,212 @@
+package com.demis27.commons.restful.benchmark;
+
+import com.demis27.commons.restful.spring.infrastructure.jpa.EntityMapper;
+import com.demis27.commons.restful.spring.infrastructure.jpa.JpaResourceAdapter;
+import com.demis27.commons.restful.spring.infrastructure.jpa.JpaResourceRepository;
+import com.demis27.commons.restful.spring.infrastructure.web.ResourceController;
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the list path end to end: {@link ResourceController}, {@link JpaResourceAdapter} and
+ * {@link com.demis27.commons.restful.spring.infrastructure.jpa.SpecificationService}, with Spring Data JPA and Hibernate
+ * on an embedded H2 database of generated regions. The scenarios are the first and the last pages, a filtered page,
+ * a page sorted on several keys, and the unfiltered and filtered counts.
+ * The throughput and the latency percentiles are measured, and the allocations with the GC profiler.
+ * The main method runs the benchmark at several concurrency levels, and writes the results of each level in JSON:
+ * java -cp target/benchmarks.jar com.demis27.commons.restful.benchmark.JpaResourceAdapterBenchmark 10000,1000000 1,4,16
+ * Only 10k regions are generated by default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JpaResourceAdapterBenchmark {
+
+    @Entity
+    @Table(name = "region")
+    public static class RegionEntity {
+        @Id
+        private Long id;
+        private String code;
+        private String country;
+        private Integer population;
+    }
+
+    public record Region(long id, String code, String country, int population) {
+    }
+
+    public interface RegionRepository extends JpaResourceRepository<RegionEntity, Long> {
+    }
+
+    static class RegionAdapter extends JpaResourceAdapter<Region, RegionEntity, Long> {
+        RegionAdapter(RegionRepository repository) {
+            super(repository, (EntityMapper<RegionEntity, Region>) entity -> new Region(entity.id, entity.code, entity.country, entity.population));
+        }
+    }
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int COUNTRIES = 50;
+
+    /**
+     * The number of generated regions. The data is generated in each fork, which takes minutes for the larger sizes,
+     * so they are only run when asked, e.g. with `-p rows=1000000,10000000`.
+     */
+    @Param({"10000"})
+    int rows;
+
+    SessionFactory sessionFactory;
+
+    RegionAdapter adapter;
+
+    ResourceController<Region> controller;
+
+    APIResourcesRequest shallowPage;
+
+    APIResourcesRequest deepPage;
+
+    APIResourcesRequest filteredPage;
+
+    APIResourcesRequest multiKeySortedPage;
+
+    APIResourcesRequest unfiltered;
+
+    APIResourcesRequest filtered;
+
+    @Setup
+    public void setup() {
+        Configuration configuration = new Configuration();
+        configuration.addAnnotatedClass(RegionEntity.class);
+        configuration.setProperty("hibernate.connection.url", "jdbc:h2:mem:regions-" + rows + ";DB_CLOSE_DELAY=-1");
+        configuration.setProperty("hibernate.connection.username", "sa");
+        configuration.setProperty("hibernate.connection.pool_size", "64");
+        configuration.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        configuration.setProperty("hibernate.show_sql", "false");
+        sessionFactory = configuration.buildSessionFactory();
+        generate();
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(sessionFactory);
+        adapter = new RegionAdapter(new JpaRepositoryFactory(entityManager).getRepository(RegionRepository.class));
+        controller = new ResourceController<>();
+
+        int lastPageStart = (rows / PAGE_SIZE - 1) * PAGE_SIZE;
+        shallowPage = request("regions=0-" + (PAGE_SIZE - 1), "code", null);
+        deepPage = request("regions=" + lastPageStart + "-" + (lastPageStart + PAGE_SIZE - 1), "code", null);
+        filteredPage = request("regions=0-" + (PAGE_SIZE - 1), "code", "country in C1 C2 C3, population gt 5000000");
+        multiKeySortedPage = request("regions=0-" + (PAGE_SIZE - 1), "country,population:desc,code", null);
+        unfiltered = request(null, null, null);
+        filtered = request(null, null, "country in C1 C2 C3, population gt 5000000");
+    }
+
+    /**
+     * Generates the regions in the database, with 50 countries and populations up to 10 millions, and indexes the columns
+     * used by the filters and the sorts.
+     */
+    private void generate() {
+        sessionFactory.inTransaction(session -> {
+            session.createNativeMutationQuery("""
+                            INSERT INTO region (id, code, country, population)
+                            SELECT X, CONCAT('R', LPAD(CAST(X AS VARCHAR), 8, '0')), CONCAT('C', MOD(X * 7919, %d)), MOD(X * 104729, 10000000)
+                            FROM SYSTEM_RANGE(1, %d)""".formatted(COUNTRIES, rows))
+                    .executeUpdate();
+            session.createNativeMutationQuery("CREATE INDEX region_code ON region (code)").executeUpdate();
+            session.createNativeMutationQuery("CREATE INDEX region_country_population ON region (country, population)").executeUpdate();
+            session.createNativeMutationQuery("ANALYZE").executeUpdate();
+        });
+    }
+
+    private static APIResourcesRequest request(String range, String sort, String filter) {
+        return new APIResourcesRequest("regions", "/api/v1/regions", range, sort, filter);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Region>> listShallowPage() {
+        return controller.getAll(shallowPage, adapter::getAllResources, adapter::countResources);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Region>> listDeepPage() {
+        return controller.getAll(deepPage, adapter::getAllResources, adapter::countResources);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Region>> listFilteredPage() {
+        return controller.getAll(filteredPage, adapter::getAllResources, adapter::countResources);
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Region>> listMultiKeySortedPage() {
+        return controller.getAll(multiKeySortedPage, adapter::getAllResources, adapter::countResources);
+    }
+
+    @Benchmark
+    public Long countUnfiltered() {
+        return adapter.countResources(unfiltered);
+    }
+
+    @Benchmark
+    public Long countFiltered() {
+        return adapter.countResources(filtered);
+    }
+
+    /**
+     * Runs the benchmark for each concurrency level, with the GC profiler, and writes the results of each level
+     * in `jpa-resource-adapter-&lt;threads&gt;-threads.json`.
+     *
+     * @param args The numbers of rows, 10000 by default, and the numbers of threads, 1,4,16 by default, separated by commas.
+     */
+    public static void main(String[] args) throws RunnerException {
+        String[] rows = args.length > 0 ? args[0].split(",") : new String[]{"10000"};
+        int[] threads = Arrays.stream(args.length > 1 ? args[1].split(",") : new String[]{"1", "4", "16"})
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        for (int threadCount : threads) {
+            new Runner(new OptionsBuilder()
+                    .include(JpaResourceAdapterBenchmark.class.getName())
+                    .param("rows", rows)
+                    .threads(threadCount)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jpa-resource-adapter-" + threadCount + "-threads.json")
+                    .build())
+                    .run();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.demis27.commons.restful.benchmark;
+
+import com.demis27.commons.restful.QueryParamCompiler;
+import com.demis27.commons.restful.QueryParamFilter;
+import com.demis27.commons.restful.QueryParamSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Compares the predicates and comparators compiled by {@link QueryParamCompiler} with hand-written lambdas,
+ * and with a naive implementation using reflection on each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryParamCompilerBenchmark {
+
+    public record Address(String city, int zipCode) {
+    }
+
+    public record Person(long id, String name, int age, Address address) {
+    }
+
+    private static final String[] CITIES = {"Paris", "London", "Berlin", "Madrid", "Rome"};
+
+    @Param({"10000"})
+    int size;
+
+    List<Person> persons;
+
+    Predicate<Person> handWrittenPredicate;
+
+    Predicate<Person> compiledPredicate;
+
+    Predicate<Person> reflectivePredicate;
+
+    Comparator<Person> handWrittenComparator;
+
+    Comparator<Person> compiledComparator;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        Random random = new Random(42);
+        persons = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            persons.add(new Person(i, "name" + random.nextInt(size), random.nextInt(100), new Address(CITIES[random.nextInt(CITIES.length)], random.nextInt(99999))));
+        }
+
+        handWrittenPredicate = person -> person.age() > 25 && person.age() < 60 && "Paris".equals(person.address().city());
+        compiledPredicate = QueryParamCompiler.toPredicate(Person.class, QueryParamFilter.parse("age gt 25,age lt 60,address.city eq Paris"));
+        Method age = Person.class.getMethod("age");
+        Method address = Person.class.getMethod("address");
+        Method city = Address.class.getMethod("city");
+        reflectivePredicate = person -> {
+            try {
+                int value = (Integer) age.invoke(person);
+                return value > 25 && value < 60 && "Paris".equals(city.invoke(address.invoke(person)));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        handWrittenComparator = Comparator.comparing((Person person) -> person.address().city()).thenComparing(Person::age, Comparator.reverseOrder());
+        compiledComparator = QueryParamCompiler.toComparator(Person.class, QueryParamSort.parse("address.city,age:desc"));
+    }
+
+    @Benchmark
+    public long filterHandWritten() {
+        return persons.stream().filter(handWrittenPredicate).count();
+    }
+
+    @Benchmark
+    public long filterCompiled() {
+        return persons.stream().filter(compiledPredicate).count();
+    }
+
+    @Benchmark
+    public long filterReflective() {
+        return persons.stream().filter(reflectivePredicate).count();
+    }
+
+    @Benchmark
+    public List<Person> sortHandWritten() {
+        return persons.stream().sorted(handWrittenComparator).toList();
+    }
+
+    @Benchmark
+    public List<Person> sortCompiled() {
+        return persons.stream().sorted(compiledComparator).toList();
+    }
+}
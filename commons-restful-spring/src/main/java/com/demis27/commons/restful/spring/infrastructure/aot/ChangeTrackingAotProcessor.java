@@ -0,0 +1,30 @@
+package com.demis27.commons.restful.spring.infrastructure.aot;
+
+import com.demis27.commons.restful.spring.infrastructure.jpa.JpaChangeTrackingResourceAdapter;
+import org.springframework.beans.factory.aot.BeanRegistrationAotContribution;
+import org.springframework.beans.factory.aot.BeanRegistrationAotProcessor;
+import org.springframework.beans.factory.support.RegisteredBean;
+import org.springframework.core.ResolvableType;
+
+/**
+ * Registers the hints of the entities of the {@link JpaChangeTrackingResourceAdapter} beans, whose version, identifier
+ * and deleted attributes, and the attributes filtering the changes, are read by name with {@link com.demis27.commons.restful.PropertyPath}.
+ * It is registered in `META-INF/spring/aot.factories`. The type of the entities is resolved from the generic type of
+ * the bean: an adapter declared with a type variable for its entities, or an embeddable type read by a nested attribute,
+ * must be registered by the application with {@link CommonsRestfulRuntimeHints#registerResourceTypes}.
+ */
+public class ChangeTrackingAotProcessor implements BeanRegistrationAotProcessor {
+
+    @Override
+    public BeanRegistrationAotContribution processAheadOfTime(RegisteredBean registeredBean) {
+        Class<?> entityType = ResolvableType.forClass(registeredBean.getBeanClass())
+                .as(JpaChangeTrackingResourceAdapter.class)
+                .getGeneric(1)
+                .resolve();
+        if (entityType == null) {
+            return null;
+        }
+        return (generationContext, beanRegistrationCode) ->
+                CommonsRestfulRuntimeHints.registerResourceTypes(generationContext.getRuntimeHints(), entityType);
+    }
+}
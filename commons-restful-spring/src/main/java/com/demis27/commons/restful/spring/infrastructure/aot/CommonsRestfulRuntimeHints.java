@@ -0,0 +1,59 @@
+package com.demis27.commons.restful.spring.infrastructure.aot;
+
+import com.demis27.commons.restful.HeaderPageable;
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+import com.demis27.commons.restful.spring.model.Facet;
+import com.demis27.commons.restful.spring.model.ResourceChanges;
+import com.demis27.commons.restful.spring.service.LimiterStats;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * The Spring AOT hints of the library, so it works in a GraalVM native image. It is registered in
+ * `META-INF/spring/aot.factories`, and registers the records serialized in the response bodies.
+ * The JPA adapters use the metamodel of the persistence unit, whose hints are contributed by Spring, except the
+ * {@link com.demis27.commons.restful.spring.infrastructure.jpa.JpaChangeTrackingResourceAdapter} which reads the
+ * tracking attributes by name: the hints of its entities are registered by {@link ChangeTrackingAotProcessor}.
+ * The other types read by property name, e.g. the resources sorted by {@link com.demis27.commons.restful.QueryParamCompiler}
+ * in the in-memory or sharded ports, are only known by the application, which registers them with
+ * {@link #registerResourceTypes(RuntimeHints, Class[])}:
+ * class RegionHints implements RuntimeHintsRegistrar {
+ * public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+ * CommonsRestfulRuntimeHints.registerResourceTypes(hints, Region.class);
+ * }
+ * }
+ */
+public class CommonsRestfulRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                APIResourcesRequest.class,
+                Facet.class,
+                Facet.FacetValue.class,
+                ResourceChanges.class,
+                LimiterStats.class,
+                HeaderPageable.class);
+    }
+
+    /**
+     * Registers the types whose properties are read by name with {@link com.demis27.commons.restful.PropertyPath}:
+     * their record components, public getters and public fields.
+     *
+     * @param hints The hints of the application.
+     * @param types The types of the resources.
+     */
+    public static void registerResourceTypes(RuntimeHints hints, Class<?>... types) {
+        for (Class<?> type : types) {
+            hints.reflection().registerType(type,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.PUBLIC_FIELDS,
+                    MemberCategory.INTROSPECT_DECLARED_METHODS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.demis27.commons.restful.spring.infrastructure.jpa;
+
+/**
+ * The attributes of an entity used to track its changes, see {@link JpaChangeTrackingResourceAdapter}.
+ *
+ * @param versionAttribute The attribute set on each creation or update to a value greater than the versions of all the
+ *                         entities already visible, e.g. from a sequence or a commit timestamp. It must increase across all
+ *                         the entities, not per entity: a JPA {@code @Version} counter does not fit. It must be comparable
+ *                         and never null.
+ * @param idAttribute      The identifier attribute, to order the changes with the same version. It must be comparable.
+ * @param deletedAttribute The boolean attribute marking a deleted entity, or null if the entities are never deleted.
+ *                         A deleted entity is returned as a deletion, so it must be kept, e.g. by a soft delete.
+ */
+public record ChangeTracking(String versionAttribute, String idAttribute, String deletedAttribute) {
+
+    /**
+     * Compact constructor to validate the arguments.
+     *
+     * @throws IllegalArgumentException if the version or identifier attribute is missing.
+     */
+    public ChangeTracking {
+        if (versionAttribute == null || versionAttribute.isBlank()) {
+            throw new IllegalArgumentException("The version attribute is mandatory");
+        }
+        if (idAttribute == null || idAttribute.isBlank()) {
+            throw new IllegalArgumentException("The identifier attribute is mandatory");
+        }
+        if (deletedAttribute != null && deletedAttribute.isBlank()) {
+            deletedAttribute = null;
+        }
+    }
+
+    /**
+     * Creates a change tracking for entities that are never deleted.
+     *
+     * @param versionAttribute The attribute increasing on each creation or update.
+     * @param idAttribute      The identifier attribute.
+     * @return The change tracking.
+     */
+    public static ChangeTracking of(String versionAttribute, String idAttribute) {
+        return new ChangeTracking(versionAttribute, idAttribute, null);
+    }
+
+    /**
+     * @param deletedAttribute The boolean attribute marking a deleted entity.
+     * @return A copy of this change tracking with the deleted attribute.
+     */
+    public ChangeTracking withDeletedAttribute(String deletedAttribute) {
+        return new ChangeTracking(versionAttribute, idAttribute, deletedAttribute);
+    }
+}
@@ -0,0 +1,46 @@
+package com.demis27.commons.restful.spring.infrastructure.jpa;
+
+import com.demis27.commons.restful.PropertyPath;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The position of the last change returned to a client: the version and the identifier of the entity.
+ * It is sent to the clients as an opaque URL-safe token.
+ *
+ * @param version The version of the last change.
+ * @param id      The identifier of the last change.
+ */
+record ChangeWatermark(Object version, Object id) {
+
+    private static final char SEPARATOR = '/';
+
+    String encode() {
+        String value = String.valueOf(version) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token and converts its values to the types of the version and identifier attributes.
+     *
+     * @throws IllegalArgumentException if the token is invalid.
+     */
+    static ChangeWatermark decode(String token, PropertyPath<?> versionPath, PropertyPath<?> idPath) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid watermark '" + token + "'", e);
+        }
+        int separator = value.indexOf(SEPARATOR);
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new IllegalArgumentException("Invalid watermark '" + token + "'");
+        }
+        try {
+            return new ChangeWatermark(versionPath.convert(value.substring(0, separator)), idPath.convert(value.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid watermark '" + token + "'", e);
+        }
+    }
+}
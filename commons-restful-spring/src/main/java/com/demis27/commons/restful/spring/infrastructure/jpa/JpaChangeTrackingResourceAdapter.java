@@ -0,0 +1,131 @@
+package com.demis27.commons.restful.spring.infrastructure.jpa;
+
+import com.demis27.commons.restful.FilterExpression;
+import com.demis27.commons.restful.HeaderPageable;
+import com.demis27.commons.restful.PropertyPath;
+import com.demis27.commons.restful.QueryParamCompiler;
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+import com.demis27.commons.restful.spring.model.ResourceChanges;
+import com.demis27.commons.restful.spring.service.ResourceChangesPort;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A {@link JpaResourceAdapter} that also returns the changes of the entities since a watermark, for clients keeping
+ * a local copy in sync without downloading the whole collection again.
+ * The changes are ordered by the version attribute then the identifier of the {@link ChangeTracking}, and the watermark
+ * is the position of the last change returned. The deleted entities are returned as deletions.
+ * The entities are selected by their version only, then the filters of the request are evaluated on each changed
+ * entity with {@link QueryParamCompiler}: an entity updated so that it no longer matches the filters is returned
+ * as a deletion, so the clients remove it from their copy. The first call, without watermark, skips them instead.
+ * The version must be set when the change is visible to the readers: a version lower than a watermark already
+ * returned, e.g. a timestamp set at the beginning of a long transaction, is never returned.
+ *
+ * @param <D> The type of the domain objects.
+ * @param <E> The type of the entities.
+ * @param <K> The type of the entity identifiers.
+ */
+public abstract class JpaChangeTrackingResourceAdapter<D, E, K> extends JpaResourceAdapter<D, E, K> implements ResourceChangesPort<D> {
+
+    /**
+     * The maximum number of changes returned when the request has no range.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final Class<E> entityType;
+
+    private final ChangeTracking tracking;
+
+    private final PropertyPath<E> versionPath;
+
+    private final PropertyPath<E> idPath;
+
+    private final PropertyPath<E> deletedPath;
+
+    /**
+     * @param repository The repository of the entities.
+     * @param mapper     The mapper from the entities to the domain objects.
+     * @param entityType The type of the entities.
+     * @param tracking   The attributes tracking the changes.
+     * @throws IllegalArgumentException if an attribute does not exist or has an invalid type.
+     */
+    protected JpaChangeTrackingResourceAdapter(JpaResourceRepository<E, K> repository, EntityMapper<E, D> mapper, Class<E> entityType, ChangeTracking tracking) {
+        super(repository, mapper);
+        this.entityType = entityType;
+        this.tracking = tracking;
+        this.versionPath = comparablePath(entityType, tracking.versionAttribute());
+        this.idPath = comparablePath(entityType, tracking.idAttribute());
+        this.deletedPath = tracking.deletedAttribute() == null ? null : PropertyPath.of(entityType, tracking.deletedAttribute());
+        if (deletedPath != null && !Boolean.class.equals(deletedPath.type())) {
+            throw new IllegalArgumentException("Attribute " + deletedPath + " must be a boolean to mark the deleted entities");
+        }
+    }
+
+    @Override
+    public ResourceChanges<D> getChangesSince(APIResourcesRequest request, String watermark) {
+        int batchSize = request.rangeHeaderValue() == null ? DEFAULT_BATCH_SIZE : HeaderPageable.parseRangeHeader(request.rangeHeaderValue()).size();
+        ChangeWatermark since = watermark == null || watermark.isBlank() ? null : ChangeWatermark.decode(watermark, versionPath, idPath);
+        FilterExpression filter = specificationService.parseFiltersString(request.filterQueryParam());
+        if (filter.isContradiction()) {
+            return new ResourceChanges<>(List.of(), List.of(), watermark, false);
+        }
+
+        Predicate<E> matches = QueryParamCompiler.toPredicate(entityType, filter);
+        Specification<E> specification = since == null ? Specification.unrestricted() : after(since);
+        Sort sort = Sort.by(tracking.versionAttribute(), tracking.idAttribute());
+        List<E> entities = repository.findBy(specification, query -> query.sortBy(sort).limit(batchSize + 1).all());
+
+        boolean hasMore = entities.size() > batchSize;
+        List<E> batch = hasMore ? entities.subList(0, batchSize) : entities;
+        List<D> changes = new ArrayList<>();
+        List<String> deletions = new ArrayList<>();
+        for (E entity : batch) {
+            boolean deleted = deletedPath != null && Boolean.TRUE.equals(deletedPath.get(entity));
+            if (!deleted && matches.test(entity)) {
+                changes.add(mapper.toDomain(entity));
+            } else if (deleted || since != null) {
+                deletions.add(String.valueOf(idPath.get(entity)));
+            }
+        }
+        String newWatermark = batch.isEmpty() ? watermark
+                : new ChangeWatermark(versionPath.get(batch.getLast()), idPath.get(batch.getLast())).encode();
+        return new ResourceChanges<>(changes, deletions, newWatermark, hasMore);
+    }
+
+    /**
+     * @return The entities after the watermark: a greater version, or the same version and a greater identifier.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Specification<E> after(ChangeWatermark since) {
+        return (root, query, criteriaBuilder) -> {
+            Path version = path(root, tracking.versionAttribute());
+            Path id = path(root, tracking.idAttribute());
+            return criteriaBuilder.or(
+                    criteriaBuilder.greaterThan(version, (Comparable) since.version()),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(version, since.version()),
+                            criteriaBuilder.greaterThan(id, (Comparable) since.id())));
+        };
+    }
+
+    private static Path<Object> path(Path<?> root, String attribute) {
+        Path<Object> path = null;
+        for (String segment : attribute.split("\\.")) {
+            path = path == null ? root.get(segment) : path.get(segment);
+        }
+        return path;
+    }
+
+    private static <E> PropertyPath<E> comparablePath(Class<E> entityType, String attribute) {
+        PropertyPath<E> path = PropertyPath.of(entityType, attribute);
+        if (!Comparable.class.isAssignableFrom(path.type())) {
+            throw new IllegalArgumentException("Attribute " + path + " of type " + path.type().getName() + " is not comparable");
+        }
+        return path;
+    }
+}
@@ -0,0 +1,230 @@
+package com.demis27.commons.restful.spring.infrastructure.jpa;
+
+import com.demis27.commons.restful.FilterExpression;
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+import com.demis27.commons.restful.spring.model.Facet;
+import com.demis27.commons.restful.spring.service.ExpiringCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Counts the entities per value of some properties with GROUP BY queries, for the facets of a search screen,
+ * so clients never fetch all the rows to count them. The filters are the ones of {@link SpecificationService}.
+ * All the facets of a request are computed with one query grouping by all the properties, unless it returns more than
+ * `maxCombinedGroups` groups: then each facet is computed with its own query. The facets can be cached for a short time.
+ * The properties are attributes of the entity or of its single-valued associations: a property reached through a
+ * collection is rejected, as its join would count each entity once per element of the collection.
+ * For example, in an adapter implementing {@link com.demis27.commons.restful.spring.service.ResourceFacetsPort}:
+ * new JpaFacetService&lt;&gt;(entityManager, RegionEntity.class, Set.of("country", "subRegion.name"));
+ *
+ * @param <E> The type of the entities.
+ */
+public class JpaFacetService<E> {
+
+    /**
+     * The default maximum number of groups of the query grouping by all the properties.
+     */
+    public static final int DEFAULT_MAX_COMBINED_GROUPS = 1000;
+
+    private record FacetKey(String filters, List<String> properties) {
+    }
+
+    private final SpecificationService<E> specificationService;
+
+    private final EntityManager entityManager;
+
+    private final Class<E> entityType;
+
+    private final Set<String> facetProperties;
+
+    private final int maxCombinedGroups;
+
+    private final ExpiringCache<FacetKey, List<Facet>> cache;
+
+    /**
+     * Creates a service without cache.
+     *
+     * @param entityManager   The entity manager running the queries.
+     * @param entityType      The type of the entities.
+     * @param facetProperties The properties allowed in the facets, as the GROUP BY queries should use indexed columns.
+     * @throws IllegalArgumentException if a property does not exist or is reached through a collection.
+     */
+    public JpaFacetService(EntityManager entityManager, Class<E> entityType, Set<String> facetProperties) {
+        this(entityManager, entityType, facetProperties, DEFAULT_MAX_COMBINED_GROUPS);
+    }
+
+    /**
+     * Creates a service with a cache.
+     *
+     * @param entityManager   The entity manager running the queries.
+     * @param entityType      The type of the entities.
+     * @param facetProperties The properties allowed in the facets, as the GROUP BY queries should use indexed columns.
+     * @param cacheMaxEntries The maximum number of facet lists in the cache.
+     * @param cacheTtl        The time a facet list is cached, it bounds the staleness of the counts.
+     * @throws IllegalArgumentException if a property does not exist or is reached through a collection.
+     */
+    public JpaFacetService(EntityManager entityManager, Class<E> entityType, Set<String> facetProperties, int cacheMaxEntries, Duration cacheTtl) {
+        this(entityManager, entityType, facetProperties, DEFAULT_MAX_COMBINED_GROUPS, new ExpiringCache<>(cacheMaxEntries, cacheTtl, Clock.systemUTC()));
+    }
+
+    JpaFacetService(EntityManager entityManager, Class<E> entityType, Set<String> facetProperties, int maxCombinedGroups) {
+        this(entityManager, entityType, facetProperties, maxCombinedGroups, (ExpiringCache<FacetKey, List<Facet>>) null);
+    }
+
+    private JpaFacetService(EntityManager entityManager, Class<E> entityType, Set<String> facetProperties, int maxCombinedGroups, ExpiringCache<FacetKey, List<Facet>> cache) {
+        this.entityManager = entityManager;
+        this.entityType = entityType;
+        this.specificationService = new SpecificationService<>(entityType);
+        this.facetProperties = Set.copyOf(facetProperties);
+        this.facetProperties.forEach(property -> checkSingleValued(entityManager.getMetamodel().managedType(entityType), property));
+        this.maxCombinedGroups = maxCombinedGroups;
+        this.cache = cache;
+    }
+
+    /**
+     * Counts the entities matching the filters of the request, per value of each property.
+     *
+     * @param request    The request, the range and the sorts are ignored.
+     * @param properties The properties, they must be allowed.
+     * @return The facets in the order of the properties, their values from the most frequent to the least frequent.
+     * @throws IllegalArgumentException if a property is not allowed.
+     */
+    public List<Facet> getFacets(APIResourcesRequest request, List<String> properties) {
+        List<String> requested = properties.stream().distinct().toList();
+        requested.stream()
+                .filter(property -> !facetProperties.contains(property))
+                .findFirst()
+                .ifPresent(property -> {
+                    throw new IllegalArgumentException("Property " + property + " is not allowed in the facets, allowed properties are " + facetProperties);
+                });
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+        FacetKey key = new FacetKey(request.normalized().filterQueryParam(), requested);
+        if (cache != null) {
+            List<Facet> cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        List<Facet> facets = computeFacets(specificationService.parseFiltersString(request.filterQueryParam()), requested);
+        if (cache != null) {
+            cache.put(key, facets);
+        }
+        return facets;
+    }
+
+    private List<Facet> computeFacets(FilterExpression filter, List<String> properties) {
+        if (filter.isContradiction()) {
+            return properties.stream().map(property -> new Facet(property, List.of())).toList();
+        }
+        if (properties.size() > 1) {
+            List<Object[]> groups = groupBy(filter, properties, maxCombinedGroups + 1);
+            if (groups.size() <= maxCombinedGroups) {
+                List<Facet> facets = new ArrayList<>();
+                for (int i = 0; i < properties.size(); i++) {
+                    facets.add(toFacet(properties.get(i), groups, i, properties.size()));
+                }
+                return facets;
+            }
+        }
+        return properties.stream().map(property -> toFacet(property, groupBy(filter, List.of(property), -1), 0, 1)).toList();
+    }
+
+    /**
+     * Sums the counts of the groups per value of a property, the count being the last column of the groups.
+     */
+    private Facet toFacet(String property, List<Object[]> groups, int column, int countColumn) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] group : groups) {
+            String value = group[column] == null ? null : String.valueOf(group[column]);
+            counts.merge(value, ((Number) group[countColumn]).longValue(), Long::sum);
+        }
+        List<Facet.FacetValue> values = counts.entrySet().stream()
+                .map(entry -> new Facet.FacetValue(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(Facet.FacetValue::count).reversed()
+                        .thenComparing(Facet.FacetValue::value, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        return new Facet(property, values);
+    }
+
+    private List<Object[]> groupBy(FilterExpression filter, List<String> properties, int maxResults) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = criteriaBuilder.createQuery(Object[].class);
+        Root<E> root = query.from(entityType);
+        List<Expression<?>> groups = new ArrayList<>();
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        properties.forEach(property -> groups.add(path(root, joins, property)));
+        List<Selection<?>> selections = new ArrayList<>(groups);
+        selections.add(criteriaBuilder.count(root));
+        query.multiselect(selections).groupBy(groups);
+        specificationService.fromExpression(filter)
+                .map(specification -> specification.toPredicate(root, query, criteriaBuilder))
+                .ifPresent(query::where);
+        var typedQuery = entityManager.createQuery(query);
+        if (maxResults > 0) {
+            typedQuery.setMaxResults(maxResults);
+        }
+        return typedQuery.getResultList();
+    }
+
+    /**
+     * Resolves the path of a property, with left joins on the intermediate segments, so the entities without the
+     * association are counted in the null value instead of being dropped. The joins are shared by the properties.
+     */
+    private static void checkSingleValued(ManagedType<?> entityType, String property) {
+        ManagedType<?> type = entityType;
+        String[] segments = property.split("\\.");
+        for (int i = 0; i < segments.length; i++) {
+            Attribute<?, ?> attribute = type.getAttribute(segments[i]);
+            if (attribute.isCollection()) {
+                throw new IllegalArgumentException("Property " + property + " is reached through the collection " + segments[i]
+                        + ", its facet would count the entities once per element");
+            }
+            if (i < segments.length - 1) {
+                if (!(attribute instanceof SingularAttribute<?, ?> singular && singular.getType() instanceof ManagedType<?> managedType)) {
+                    throw new IllegalArgumentException("Property " + property + " is invalid, " + segments[i] + " is not an association");
+                }
+                type = managedType;
+            }
+        }
+    }
+
+    private static Path<Object> path(Root<?> root, Map<String, From<?, ?>> joins, String property) {
+        int last = property.lastIndexOf('.');
+        if (last < 0) {
+            return root.get(property);
+        }
+        return join(root, joins, property.substring(0, last)).get(property.substring(last + 1));
+    }
+
+    private static From<?, ?> join(Root<?> root, Map<String, From<?, ?>> joins, String association) {
+        From<?, ?> join = joins.get(association);
+        if (join == null) {
+            int last = association.lastIndexOf('.');
+            From<?, ?> parent = last < 0 ? root : join(root, joins, association.substring(0, last));
+            join = parent.join(association.substring(last + 1), JoinType.LEFT);
+            joins.put(association, join);
+        }
+        return join;
+    }
+}
@@ -1,8 +1,10 @@
 package com.demis27.commons.restful.spring.infrastructure.jpa;
 
+import com.demis27.commons.restful.FilterExpression;
 import com.demis27.commons.restful.spring.model.APIResourcesRequest;
 import com.demis27.commons.restful.spring.service.ResourcePort;
 import com.demis27.commons.restful.spring.service.RestFulSpringSupport;
+import org.springframework.core.ResolvableType;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -11,7 +13,7 @@ import java.util.Optional;
 
 public abstract class JpaResourceAdapter<D, E, K> implements ResourcePort<D> {
 
-    private final SpecificationService<E> specificationService = new SpecificationService<>();
+    protected final SpecificationService<E> specificationService;
 
     protected final JpaResourceRepository<E, K> repository;
 
@@ -20,12 +22,27 @@ public abstract class JpaResourceAdapter<D, E, K> implements ResourcePort<D> {
     protected JpaResourceAdapter(JpaResourceRepository<E, K> repository, EntityMapper<E, D> mapper) {
         this.repository = repository;
         this.mapper = mapper;
+        this.specificationService = new SpecificationService<>(entityType());
+    }
+
+    /**
+     * @return The type of the entities, resolved from the generic type of the adapter, to detect the contradictions
+     * of the filters before any query.
+     */
+    @SuppressWarnings("unchecked")
+    private Class<E> entityType() {
+        Class<?> entityType = ResolvableType.forClass(getClass()).as(JpaResourceAdapter.class).getGeneric(1).resolve();
+        return (Class<E>) (entityType == null ? Object.class : entityType);
     }
 
     @Override
     public List<D> getAllResources(APIResourcesRequest request) {
         PageRequest pageRequest = new RestFulSpringSupport().parseFromRest(request.rangeHeaderValue(), request.sortQueryParam());
-        Optional<Specification<E>> optionalSpecification = specificationService.fromFiltersString(request.filterQueryParam());
+        FilterExpression filter = specificationService.parseFiltersString(request.filterQueryParam());
+        if (filter.isContradiction()) {
+            return List.of();
+        }
+        Optional<Specification<E>> optionalSpecification = specificationService.fromExpression(filter);
 
         return optionalSpecification.map(eSpecification -> repository.findAll(eSpecification, pageRequest)
                         .stream()
@@ -39,7 +56,11 @@ public abstract class JpaResourceAdapter<D, E, K> implements ResourcePort<D> {
 
     @Override
     public Long countResources(APIResourcesRequest request) {
-        Optional<Specification<E>> optionalSpecification = specificationService.fromFiltersString(request.filterQueryParam());
+        FilterExpression filter = specificationService.parseFiltersString(request.filterQueryParam());
+        if (filter.isContradiction()) {
+            return 0L;
+        }
+        Optional<Specification<E>> optionalSpecification = specificationService.fromExpression(filter);
 
         return optionalSpecification.map(repository::count)
                 .orElseGet(repository::count);
@@ -0,0 +1,124 @@
+package com.demis27.commons.restful.spring.infrastructure.jpa;
+
+import com.demis27.commons.restful.FilterExpression;
+import com.demis27.commons.restful.HeaderPageable;
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+import com.demis27.commons.restful.spring.service.RestFulSpringSupport;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Warms up the request paths of the resources when the application starts, before it reports ready, so the first
+ * requests after a scale-out are not slow: the entities are resolved in the metamodel, then, for a representative
+ * request of each resource, the range header, the sorts and the filters are parsed, and the criteria query is built
+ * and compiled by the JPA provider, several times to trigger the JIT. No query is sent to the database.
+ * Declared as a bean, the warm-up runs once all the singletons are created:
+ * new ResourceWarmUp(entityManagerFactory, List.of(new ResourceWarmUp.WarmUpRequest(RegionEntity.class,
+ * new APIResourcesRequest("regions", "/api/v1/regions", "regions=0-9", "name", "population gt 1000"))), 200);
+ */
+public class ResourceWarmUp implements SmartInitializingSingleton {
+
+    /**
+     * A representative request of a resource.
+     *
+     * @param entityType The type of the entities of the resource.
+     * @param request    The request, with the sorts and the filters usually sent by the clients.
+     */
+    public record WarmUpRequest(Class<?> entityType, APIResourcesRequest request) {
+
+        /**
+         * Compact constructor to validate the arguments.
+         *
+         * @throws IllegalArgumentException if an argument is null.
+         */
+        public WarmUpRequest {
+            if (entityType == null || request == null) {
+                throw new IllegalArgumentException("The entity type and the request cannot be null");
+            }
+        }
+    }
+
+    private final RestFulSpringSupport support = new RestFulSpringSupport();
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final List<WarmUpRequest> requests;
+
+    private final int iterations;
+
+    /**
+     * @param entityManagerFactory The factory of the persistence unit of the entities.
+     * @param requests             The representative requests of the resources.
+     * @param iterations           The number of times each request is processed.
+     * @throws IllegalArgumentException if the number of iterations is not positive.
+     */
+    public ResourceWarmUp(EntityManagerFactory entityManagerFactory, List<WarmUpRequest> requests, int iterations) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("The number of iterations must be greater than 0");
+        }
+        this.entityManagerFactory = entityManagerFactory;
+        this.requests = List.copyOf(requests);
+        this.iterations = iterations;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        warmUp();
+    }
+
+    /**
+     * Warms up the requests. An invalid request, e.g. with an unknown property, fails the startup
+     * with the exception the adapters would throw for it.
+     *
+     * @return The duration of the warm-up.
+     */
+    public Duration warmUp() {
+        long start = System.nanoTime();
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            requests.forEach(request -> entityManager.getMetamodel().entity(request.entityType()));
+            for (int i = 0; i < iterations; i++) {
+                requests.forEach(request -> warmUp(entityManager, request.entityType(), request.request()));
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private <E> void warmUp(EntityManager entityManager, Class<E> entityType, APIResourcesRequest request) {
+        HeaderPageable range = request.rangeHeaderValue() == null
+                ? new HeaderPageable(request.resourceName(), 0, 10, -1)
+                : HeaderPageable.parseRangeHeader(request.rangeHeaderValue());
+        range = HeaderPageable.toBuilder(range).total((range.page() + 2L) * range.size()).build();
+        range.toContentRangeHeader(false);
+        range.toLinkHeaders(request.baseURI()).toString();
+
+        PageRequest pageRequest = support.parseFromRest(request.rangeHeaderValue(), request.sortQueryParam());
+        SpecificationService<E> specificationService = new SpecificationService<>(entityType);
+        FilterExpression filter = specificationService.parseFiltersString(request.filterQueryParam());
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<E> query = criteriaBuilder.createQuery(entityType);
+        Root<E> root = query.from(entityType);
+        specificationService.fromExpression(filter)
+                .map(specification -> specification.toPredicate(root, query, criteriaBuilder))
+                .ifPresent(query::where);
+        query.orderBy(QueryUtils.toOrders(pageRequest.getSort(), root, criteriaBuilder));
+        entityManager.createQuery(query);
+
+        CriteriaQuery<Long> countQuery = criteriaBuilder.createQuery(Long.class);
+        Root<E> countRoot = countQuery.from(entityType);
+        countQuery.select(criteriaBuilder.count(countRoot));
+        specificationService.fromExpression(filter)
+                .map(specification -> specification.toPredicate(countRoot, countQuery, criteriaBuilder))
+                .ifPresent(countQuery::where);
+        entityManager.createQuery(countQuery);
+    }
+}
@@ -1,22 +1,52 @@
 package com.demis27.commons.restful.spring.infrastructure.jpa;
 
+import com.demis27.commons.restful.FilterExpression;
 import com.demis27.commons.restful.QueryParamFilter;
 import jakarta.persistence.criteria.Path;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
 import org.springframework.data.jpa.domain.Specification;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * This service class is responsible for converting a filter string into a Spring Data JPA {@link Specification}.
- * The filter string is a comma-separated list of individual filter criteria.
- * Each criterion is composed of a property name, an operator, and one or more values.
+ * The filter string is a {@link FilterExpression}: individual filter criteria combined with `,` (or `and`), `or`, `not`
+ * and parentheses. Each criterion is composed of a property name, an operator, and one or more values.
+ * The expression is optimized before being converted, so redundant criteria never reach the database. The filter string
+ * is first optimized with the types of the fields of the entity, when it is known, so a contradiction such as
+ * `age gt 20, age lt 10` is detected before any query, then again when the predicate is built, with the types of the
+ * JPA metamodel.
  *
  * @param <T> The type of the JPA entity to which the filter will be applied.
  */
 public class SpecificationService<T> {
 
+    private final Function<String, Class<?>> propertyTypes;
+
+    /**
+     * Creates a service optimizing the filter strings without the types of the properties, until the predicate is built.
+     */
+    public SpecificationService() {
+        this.propertyTypes = null;
+    }
+
+    /**
+     * Creates a service optimizing the filter strings with the types of the fields of the entity.
+     *
+     * @param entityType The type of the entities.
+     */
+    public SpecificationService(Class<T> entityType) {
+        Map<String, Optional<Class<?>>> types = new ConcurrentHashMap<>();
+        this.propertyTypes = property -> types.computeIfAbsent(property, key -> Optional.ofNullable(fieldType(entityType, key))).orElse(null);
+    }
+
     /**
      * Converts a filter string into a {@link Specification}.
      *
@@ -24,23 +54,105 @@ public class SpecificationService<T> {
      * @return A {@link Specification} that can be used to query the database.
      */
     public Optional<Specification<T>> fromFiltersString(String filters) {
+        return fromExpression(parseFiltersString(filters));
+    }
+
+    /**
+     * Parses and optimizes a filter string.
+     * Callers can check {@link FilterExpression#isContradiction()} on the result to skip the query entirely.
+     *
+     * @param filters The filter string to parse.
+     * @return The optimized expression, {@link FilterExpression#ALWAYS} if the filter string is null or blank.
+     */
+    public FilterExpression parseFiltersString(String filters) {
         if (filters == null || filters.trim().isEmpty()) {
+            return FilterExpression.ALWAYS;
+        }
+        FilterExpression expression = FilterExpression.parse(filters);
+        return propertyTypes == null ? expression.optimize() : expression.optimize(propertyTypes);
+    }
+
+    /**
+     * Converts a filter expression into a {@link Specification}.
+     *
+     * @param expression The expression to convert.
+     * @return A {@link Specification} that can be used to query the database, empty if the expression matches everything.
+     */
+    public Optional<Specification<T>> fromExpression(FilterExpression expression) {
+        if (expression == null || expression.isTautology()) {
             return Optional.empty();
         }
+        return Optional.of((root, query, criteriaBuilder) -> toSpecification(expression.optimize(property -> propertyType(root.getModel(), property)))
+                .toPredicate(root, query, criteriaBuilder));
+    }
 
-        List<QueryParamFilter> parsedFilters = QueryParamFilter.parse(filters);
-        return fromFilters(parsedFilters);
+    /**
+     * @return The type of a property in the metamodel, null if it is unknown, the error is then reported when the path is built.
+     */
+    private static Class<?> propertyType(ManagedType<?> model, String property) {
+        ManagedType<?> current = model;
+        Class<?> type = null;
+        for (String segment : property.split("\\.")) {
+            if (current == null) {
+                return null;
+            }
+            try {
+                Attribute<?, ?> attribute = current.getAttribute(segment);
+                type = attribute.getJavaType();
+                current = attribute instanceof SingularAttribute<?, ?> singular && singular.getType() instanceof ManagedType<?> managed ? managed : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return type;
     }
 
-    public Optional<Specification<T>> fromFilters(List<QueryParamFilter> filters) {
-        if (filters == null || filters.isEmpty()) {
-            return Optional.empty();
+    /**
+     * @return The type of a field of an entity, possibly nested, null if it is unknown or a collection.
+     */
+    private static Class<?> fieldType(Class<?> entityType, String property) {
+        Class<?> type = entityType;
+        for (String segment : property.split("\\.")) {
+            type = declaredFieldType(type, segment);
+            if (type == null || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+                return null;
+            }
         }
+        return type;
+    }
 
-        List<Specification<T>> specifications = new ArrayList<>();
-        filters.forEach(filter -> specifications.add(parseFilter(filter)));
+    private static Class<?> declaredFieldType(Class<?> type, String name) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredField(name).getType();
+            } catch (NoSuchFieldException e) {
+                // Declared by a superclass, if any
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converts a list of filters that must all match into a {@link Specification}, optimized like a filter expression.
+     *
+     * @param filters The filters.
+     * @return A {@link Specification} that can be used to query the database, empty if there is no filter.
+     */
+    public Optional<Specification<T>> fromFilters(List<QueryParamFilter> filters) {
+        FilterExpression expression = FilterExpression.of(filters);
+        return fromExpression(propertyTypes == null ? expression.optimize() : expression.optimize(propertyTypes));
+    }
 
-        return Optional.of(Specification.allOf(specifications));
+    private Specification<T> toSpecification(FilterExpression expression) {
+        return switch (expression) {
+            case FilterExpression.Comparison comparison -> parseFilter(comparison.filter());
+            case FilterExpression.And and -> Specification.allOf(and.operands().stream().map(this::toSpecification).toList());
+            case FilterExpression.Or or -> Specification.anyOf(or.operands().stream().map(this::toSpecification).toList());
+            case FilterExpression.Not not -> Specification.not(toSpecification(not.operand()));
+            case FilterExpression.Constant constant -> constant.value()
+                    ? (root, query, criteriaBuilder) -> criteriaBuilder.conjunction()
+                    : (root, query, criteriaBuilder) -> criteriaBuilder.disjunction();
+        };
     }
 
     private Specification<T> parseFilter(QueryParamFilter filter) {
@@ -65,6 +177,7 @@ public class SpecificationService<T> {
                 case LESS_OR_EQUALS -> criteriaBuilder.lessThanOrEqualTo((Path) path, filter.values().getFirst());
                 case IN -> path.in(filter.values());
                 case LIKE -> criteriaBuilder.like((Path) path, filter.values().getFirst());
+                case BETWEEN -> criteriaBuilder.between((Path) path, filter.values().get(0), filter.values().get(1));
             };
         };
     }
@@ -0,0 +1,309 @@
+package com.demis27.commons.restful.spring.infrastructure.memory;
+
+import com.demis27.commons.restful.FilterExpression;
+import com.demis27.commons.restful.PropertyPath;
+import com.demis27.commons.restful.QueryParamCompiler;
+import com.demis27.commons.restful.QueryParamFilter;
+import com.demis27.commons.restful.QueryParamSort;
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+import com.demis27.commons.restful.spring.service.ResourcePort;
+import com.demis27.commons.restful.spring.service.RestFulSpringSupport;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ResourcePort} serving a small, read-heavy resource set, e.g. regions or currencies, from memory.
+ * The resources are loaded at construction and reloaded by {@link #refresh()}, typically from a scheduled task
+ * or an event listener. A refresh builds a new immutable snapshot and swaps it atomically, so readers never lock.
+ * Each indexed property has a sorted index: `eq`, `in` and range filters, sorts and ranges are answered by
+ * binary search instead of a full scan. The requests may also filter and sort on the other allowed properties, evaluated
+ * with {@link QueryParamCompiler}, and are rejected with an {@link IllegalArgumentException} on any other property.
+ * For example:
+ * new InMemoryResourcePort&lt;&gt;(Region.class, regionRepository::findAll, Set.of("code"), Set.of("name", "population"));
+ *
+ * @param <D> The type of the resources.
+ */
+public class InMemoryResourcePort<D> implements ResourcePort<D> {
+
+    private record Snapshot<D>(List<D> elements, Map<String, SortedIndex<D>> indexes) {
+    }
+
+    private static final Log LOGGER = LogFactory.getLog(InMemoryResourcePort.class);
+
+    private final RestFulSpringSupport springSupport = new RestFulSpringSupport();
+
+    private final Class<D> type;
+
+    private final Supplier<? extends Collection<D>> loader;
+
+    private final Set<String> indexedProperties;
+
+    private final Set<String> allowedProperties;
+
+    private volatile Snapshot<D> snapshot;
+
+    /**
+     * Creates the port and loads the resources, the requests may only filter and sort on the indexed properties.
+     *
+     * @param type              The type of the resources.
+     * @param loader            The loader of all the resources, called at construction and on each refresh.
+     * @param indexedProperties The filterable and sortable properties to index, they must be comparable.
+     * @throws IllegalArgumentException if an indexed property does not exist or is not comparable.
+     */
+    public InMemoryResourcePort(Class<D> type, Supplier<? extends Collection<D>> loader, Set<String> indexedProperties) {
+        this(type, loader, indexedProperties, Set.of());
+    }
+
+    /**
+     * Creates the port and loads the resources.
+     *
+     * @param type              The type of the resources.
+     * @param loader            The loader of all the resources, called at construction and on each refresh.
+     * @param indexedProperties The filterable and sortable properties to index, they must be comparable.
+     * @param otherProperties   The other filterable and sortable properties, evaluated with a scan of the resources.
+     * @throws IllegalArgumentException if a property does not exist, or an indexed property is not comparable.
+     */
+    public InMemoryResourcePort(Class<D> type, Supplier<? extends Collection<D>> loader, Set<String> indexedProperties, Set<String> otherProperties) {
+        this.type = type;
+        this.loader = loader;
+        this.indexedProperties = Set.copyOf(indexedProperties);
+        Set<String> allowed = new LinkedHashSet<>(indexedProperties);
+        allowed.addAll(otherProperties);
+        allowed.forEach(property -> PropertyPath.of(type, property));
+        this.allowedProperties = Set.copyOf(allowed);
+        refresh();
+    }
+
+    /**
+     * Reloads the resources and rebuilds the indexes, then swaps the snapshot. Readers keep using the previous snapshot
+     * until the new one is ready. If the loader fails, the previous snapshot is kept and the exception is rethrown.
+     */
+    public synchronized void refresh() {
+        List<D> elements = List.copyOf(loader.get());
+        Map<String, SortedIndex<D>> indexes = new LinkedHashMap<>();
+        indexedProperties.forEach(property -> indexes.put(property, new SortedIndex<>(PropertyPath.of(type, property), elements)));
+        snapshot = new Snapshot<>(elements, Map.copyOf(indexes));
+    }
+
+    /**
+     * Schedules a periodic {@link #refresh()}. A failed refresh is logged and the previous snapshot is kept,
+     * the next refreshes still run.
+     *
+     * @param scheduler The scheduler running the refresh.
+     * @param period    The period between two refreshes.
+     * @return The scheduled task, to cancel it.
+     */
+    public ScheduledFuture<?> scheduleRefresh(ScheduledExecutorService scheduler, Duration period) {
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to refresh the " + type.getSimpleName() + " resources, the previous ones are kept", e);
+            }
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public List<D> getAllResources(APIResourcesRequest request) {
+        Snapshot<D> current = snapshot;
+        PageRequest pageRequest = springSupport.parseFromHeader(request.rangeHeaderValue());
+        List<QueryParamSort> sorts = request.sortQueryParam() == null || request.sortQueryParam().isBlank()
+                ? List.of() : QueryParamSort.parse(request.sortQueryParam());
+        sorts.forEach(sort -> checkAllowed(sort.property(), "sorts"));
+        FilterExpression filter = parseFilter(request.filterQueryParam());
+        if (filter.isContradiction()) {
+            return List.of();
+        }
+        int offset = (int) Math.min(pageRequest.getOffset(), Integer.MAX_VALUE);
+        int size = pageRequest.getPageSize();
+
+        if (filter.isTautology() && sorts.size() == 1 && current.indexes().containsKey(sorts.getFirst().property())) {
+            return slice(current, current.indexes().get(sorts.getFirst().property()), sorts.getFirst().order(), offset, size);
+        }
+        if (filter.isTautology() && sorts.isEmpty()) {
+            List<D> elements = current.elements();
+            return elements.subList(Math.min(offset, elements.size()), (int) Math.min((long) offset + size, elements.size()));
+        }
+
+        int[] positions = sort(current, select(current, filter), sorts);
+        List<D> result = new ArrayList<>(Math.max(0, Math.min(size, positions.length - offset)));
+        for (int i = offset; i < positions.length && i < (long) offset + size; i++) {
+            result.add(current.elements().get(positions[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public Long countResources(APIResourcesRequest request) {
+        Snapshot<D> current = snapshot;
+        FilterExpression filter = parseFilter(request.filterQueryParam());
+        if (filter.isContradiction()) {
+            return 0L;
+        }
+        if (filter.isTautology()) {
+            return (long) current.elements().size();
+        }
+        if (filter instanceof FilterExpression.Comparison comparison && isIndexed(current, comparison.filter())) {
+            return current.indexes().get(comparison.filter().property()).ranges(comparison.filter()).stream()
+                    .mapToLong(SortedIndex.Range::size)
+                    .sum();
+        }
+        return (long) select(current, filter).length;
+    }
+
+    private FilterExpression parseFilter(String filterString) {
+        if (filterString == null || filterString.isBlank()) {
+            return FilterExpression.ALWAYS;
+        }
+        FilterExpression filter = FilterExpression.parse(filterString);
+        checkAllowed(filter);
+        return filter.optimize(property -> PropertyPath.of(type, property).type());
+    }
+
+    private void checkAllowed(FilterExpression filter) {
+        switch (filter) {
+            case FilterExpression.Comparison comparison -> checkAllowed(comparison.filter().property(), "filters");
+            case FilterExpression.And and -> and.operands().forEach(this::checkAllowed);
+            case FilterExpression.Or or -> or.operands().forEach(this::checkAllowed);
+            case FilterExpression.Not not -> checkAllowed(not.operand());
+            case FilterExpression.Constant constant -> {
+            }
+        }
+    }
+
+    private void checkAllowed(String property, String usage) {
+        if (!allowedProperties.contains(property)) {
+            throw new IllegalArgumentException("Property " + property + " is not allowed in the " + usage + ", allowed properties are " + allowedProperties);
+        }
+    }
+
+    private List<D> slice(Snapshot<D> current, SortedIndex<D> index, QueryParamSort.SortOrder order, int offset, int size) {
+        List<D> result = new ArrayList<>(Math.max(0, Math.min(size, index.size() - offset)));
+        for (int i = offset; i < index.size() && i < (long) offset + size; i++) {
+            int position = order == QueryParamSort.SortOrder.ASC ? index.position(i) : index.position(index.size() - 1 - i);
+            result.add(current.elements().get(position));
+        }
+        return result;
+    }
+
+    /**
+     * Selects the positions of the elements matching a filter, using the most selective index of the conjunction
+     * and evaluating the remaining filters on the candidates only.
+     */
+    private int[] select(Snapshot<D> current, FilterExpression filter) {
+        List<FilterExpression> conjuncts = switch (filter) {
+            case FilterExpression.Comparison comparison -> List.of(comparison);
+            case FilterExpression.And and -> and.operands();
+            default -> List.of();
+        };
+
+        FilterExpression.Comparison best = null;
+        List<SortedIndex.Range> bestRanges = null;
+        int bestSize = Integer.MAX_VALUE;
+        for (FilterExpression conjunct : conjuncts) {
+            if (conjunct instanceof FilterExpression.Comparison comparison && isIndexed(current, comparison.filter())) {
+                List<SortedIndex.Range> ranges = current.indexes().get(comparison.filter().property()).ranges(comparison.filter());
+                int candidates = ranges.stream().mapToInt(SortedIndex.Range::size).sum();
+                if (candidates < bestSize) {
+                    best = comparison;
+                    bestRanges = ranges;
+                    bestSize = candidates;
+                }
+            }
+        }
+
+        List<D> elements = current.elements();
+        if (best == null) {
+            Predicate<D> predicate = QueryParamCompiler.toPredicate(type, filter);
+            int[] positions = new int[elements.size()];
+            int count = 0;
+            for (int position = 0; position < elements.size(); position++) {
+                if (predicate.test(elements.get(position))) {
+                    positions[count++] = position;
+                }
+            }
+            return Arrays.copyOf(positions, count);
+        }
+
+        FilterExpression.Comparison selected = best;
+        List<FilterExpression> remaining = conjuncts.stream().filter(conjunct -> conjunct != selected).toList();
+        Predicate<D> predicate = QueryParamCompiler.toPredicate(type, remaining.isEmpty() ? FilterExpression.ALWAYS
+                : remaining.size() == 1 ? remaining.getFirst() : new FilterExpression.And(remaining));
+        SortedIndex<D> index = current.indexes().get(best.filter().property());
+        int[] positions = new int[bestSize];
+        int count = 0;
+        for (SortedIndex.Range range : bestRanges) {
+            for (int i = range.from(); i < range.to(); i++) {
+                int position = index.position(i);
+                if (predicate.test(elements.get(position))) {
+                    positions[count++] = position;
+                }
+            }
+        }
+        return Arrays.stream(positions, 0, count).sorted().distinct().toArray();
+    }
+
+    /**
+     * Sorts positions, already in load order. A single indexed key is sorted as primitive longs combining the rank and the position,
+     * several indexed keys are compared by rank, other keys fall back to a compiled comparator on the elements.
+     */
+    private int[] sort(Snapshot<D> current, int[] positions, List<QueryParamSort> sorts) {
+        if (sorts.isEmpty() || positions.length < 2) {
+            return positions;
+        }
+        boolean allIndexed = sorts.stream().allMatch(sort -> current.indexes().containsKey(sort.property()));
+        if (allIndexed && sorts.size() == 1) {
+            SortedIndex<D> index = current.indexes().get(sorts.getFirst().property());
+            boolean descending = sorts.getFirst().order() == QueryParamSort.SortOrder.DESC;
+            long[] keys = new long[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                long rank = index.rank(positions[i]);
+                keys[i] = ((descending ? Integer.MAX_VALUE - rank : rank) << 32) | positions[i];
+            }
+            Arrays.sort(keys);
+            int[] sorted = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                sorted[i] = (int) keys[i];
+            }
+            return sorted;
+        }
+
+        Comparator<Integer> comparator;
+        if (allIndexed) {
+            comparator = null;
+            for (QueryParamSort sort : sorts) {
+                SortedIndex<D> index = current.indexes().get(sort.property());
+                Comparator<Integer> byRank = sort.order() == QueryParamSort.SortOrder.ASC
+                        ? (first, second) -> Integer.compare(index.rank(first), index.rank(second))
+                        : (first, second) -> Integer.compare(index.rank(second), index.rank(first));
+                comparator = comparator == null ? byRank : comparator.thenComparing(byRank);
+            }
+        } else {
+            Comparator<D> elementComparator = QueryParamCompiler.toComparator(type, sorts);
+            List<D> elements = current.elements();
+            comparator = (first, second) -> elementComparator.compare(elements.get(first), elements.get(second));
+        }
+        return Arrays.stream(positions).boxed().sorted(comparator).mapToInt(Integer::intValue).toArray();
+    }
+
+    private boolean isIndexed(Snapshot<D> current, QueryParamFilter filter) {
+        return current.indexes().containsKey(filter.property()) && SortedIndex.supports(filter);
+    }
+}
@@ -0,0 +1,168 @@
+package com.demis27.commons.restful.spring.infrastructure.memory;
+
+import com.demis27.commons.restful.PropertyPath;
+import com.demis27.commons.restful.QueryParamFilter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable index of the elements of a snapshot, sorted by the value of a property. Null values are sorted last.
+ * Ranges of positions are found by binary search, and the dense rank of each element allows sorting positions
+ * with primitive comparisons.
+ *
+ * @param <D> The type of the indexed elements.
+ */
+final class SortedIndex<D> {
+
+    /**
+     * A range of the index, from `from` inclusive to `to` exclusive.
+     */
+    record Range(int from, int to) {
+        int size() {
+            return Math.max(0, to - from);
+        }
+    }
+
+    private final PropertyPath<D> path;
+
+    /**
+     * The positions of the elements in the snapshot, sorted by value.
+     */
+    private final int[] positions;
+
+    /**
+     * The non-null values, sorted, parallel to the beginning of {@link #positions}.
+     */
+    private final Object[] values;
+
+    /**
+     * The dense rank of each element, by position. Equal values have the same rank, null values have the highest rank.
+     */
+    private final int[] ranks;
+
+    SortedIndex(PropertyPath<D> path, List<D> elements) {
+        if (!Comparable.class.isAssignableFrom(path.type())) {
+            throw new IllegalArgumentException("Property " + path + " of type " + path.type().getName() + " is not comparable and cannot be indexed");
+        }
+        this.path = path;
+        Object[] all = new Object[elements.size()];
+        Integer[] sorted = new Integer[elements.size()];
+        for (int i = 0; i < elements.size(); i++) {
+            all[i] = path.get(elements.get(i));
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, Comparator.comparing(position -> all[position], Comparator.nullsLast(SortedIndex::compare)));
+
+        this.positions = new int[sorted.length];
+        this.ranks = new int[sorted.length];
+        int nonNull = 0;
+        int rank = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            int position = sorted[i];
+            positions[i] = position;
+            Object value = all[position];
+            if (value == null) {
+                ranks[position] = Integer.MAX_VALUE;
+            } else {
+                if (i > 0 && compare(value, all[sorted[i - 1]]) != 0) {
+                    rank++;
+                }
+                ranks[position] = rank;
+                nonNull++;
+            }
+        }
+        this.values = new Object[nonNull];
+        for (int i = 0; i < nonNull; i++) {
+            values[i] = all[positions[i]];
+        }
+    }
+
+    int position(int index) {
+        return positions[index];
+    }
+
+    int rank(int position) {
+        return ranks[position];
+    }
+
+    int size() {
+        return positions.length;
+    }
+
+    /**
+     * @return `true` if the filter can be answered by this index, see {@link #ranges(QueryParamFilter)}.
+     */
+    static boolean supports(QueryParamFilter filter) {
+        return switch (filter.operator()) {
+            case EQUALS, IN, GREATER, GREATER_OR_EQUALS, LESS, LESS_OR_EQUALS, BETWEEN -> true;
+            case NOT_EQUALS, LIKE -> false;
+        };
+    }
+
+    /**
+     * Returns the ranges of the index matching a filter on the indexed property.
+     *
+     * @throws IllegalArgumentException if the filter is not supported, or a value cannot be converted to the property type.
+     */
+    List<Range> ranges(QueryParamFilter filter) {
+        return switch (filter.operator()) {
+            case EQUALS -> List.of(equalRange(convert(filter.values().getFirst())));
+            case IN -> filter.values().stream().map(value -> equalRange(convert(value))).toList();
+            case GREATER -> List.of(new Range(upperBound(convert(filter.values().getFirst())), values.length));
+            case GREATER_OR_EQUALS -> List.of(new Range(lowerBound(convert(filter.values().getFirst())), values.length));
+            case LESS -> List.of(new Range(0, lowerBound(convert(filter.values().getFirst()))));
+            case LESS_OR_EQUALS -> List.of(new Range(0, upperBound(convert(filter.values().getFirst()))));
+            case BETWEEN -> List.of(new Range(lowerBound(convert(filter.values().get(0))), upperBound(convert(filter.values().get(1)))));
+            case NOT_EQUALS, LIKE -> throw new IllegalArgumentException("Operator " + filter.operator() + " is not supported by the index on " + path);
+        };
+    }
+
+    private Object convert(String value) {
+        return path.convert(value);
+    }
+
+    private Range equalRange(Object value) {
+        return new Range(lowerBound(value), upperBound(value));
+    }
+
+    /**
+     * @return The first index whose value is greater than or equal to the given value.
+     */
+    private int lowerBound(Object value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(values[middle], value) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The first index whose value is greater than the given value.
+     */
+    private int upperBound(Object value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(values[middle], value) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object first, Object second) {
+        return ((Comparable) first).compareTo(second);
+    }
+}
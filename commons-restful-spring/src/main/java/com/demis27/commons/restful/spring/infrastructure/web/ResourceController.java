@@ -2,9 +2,17 @@ package com.demis27.commons.restful.spring.infrastructure.web;
 
 import com.demis27.commons.restful.HeaderPageable;
 import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+import com.demis27.commons.restful.spring.model.Facet;
+import com.demis27.commons.restful.spring.model.ResourceChanges;
+import com.demis27.commons.restful.spring.service.ResourceOverloadedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.ToLongFunction;
 
@@ -19,4 +27,29 @@ public class ResourceController<T> {
                 .header("link", resultRange.toLinkHeaders("/api/v1/regions").toString())
                 .body(getAllFunction.apply(resourcesRequest));
     }
+
+    public ResponseEntity<ResourceChanges<T>> getChanges(APIResourcesRequest resourcesRequest, String watermark, BiFunction<APIResourcesRequest, String, ResourceChanges<T>> getChangesFunction) {
+        return ResponseEntity
+                .ok()
+                .body(getChangesFunction.apply(resourcesRequest, watermark));
+    }
+
+    public ResponseEntity<List<Facet>> getFacets(APIResourcesRequest resourcesRequest, String facetsQueryParam, BiFunction<APIResourcesRequest, List<String>, List<Facet>> getFacetsFunction) {
+        List<String> properties = facetsQueryParam == null ? List.of() : Arrays.stream(facetsQueryParam.split(","))
+                .map(String::strip)
+                .filter(property -> !property.isEmpty())
+                .toList();
+        return ResponseEntity
+                .ok()
+                .body(getFacetsFunction.apply(resourcesRequest, properties));
+    }
+
+    @ExceptionHandler(ResourceOverloadedException.class)
+    public ResponseEntity<Void> handleResourceOverloaded(ResourceOverloadedException exception) {
+        long retryAfterSeconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+    }
 }
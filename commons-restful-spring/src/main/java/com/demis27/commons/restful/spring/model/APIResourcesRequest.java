@@ -19,4 +19,32 @@ public record APIResourcesRequest(
         String rangeHeaderValue,
         String sortQueryParam,
         String filterQueryParam) {
+
+    /**
+     * Returns an equivalent request usable as a key, e.g. for a cache: the values are trimmed,
+     * blank values are replaced by null and the 'Range: ' prefix of the range is removed.
+     *
+     * @return The normalized request.
+     */
+    public APIResourcesRequest normalized() {
+        String range = normalize(rangeHeaderValue);
+        if (range != null && range.startsWith("Range:")) {
+            range = normalize(range.substring("Range:".length()));
+        }
+        return new APIResourcesRequest(normalize(resourceName), normalize(baseURI), range, normalize(sortQueryParam), normalize(filterQueryParam));
+    }
+
+    /**
+     * Returns a copy of this request with another range.
+     *
+     * @param rangeHeaderValue The new range, e.g. countries=20-39.
+     * @return The new request.
+     */
+    public APIResourcesRequest withRange(String rangeHeaderValue) {
+        return new APIResourcesRequest(resourceName, baseURI, rangeHeaderValue, sortQueryParam, filterQueryParam);
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.strip();
+    }
 }
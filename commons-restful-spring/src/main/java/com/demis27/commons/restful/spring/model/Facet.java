@@ -0,0 +1,28 @@
+package com.demis27.commons.restful.spring.model;
+
+import java.util.List;
+
+/**
+ * The number of resources per value of a property, e.g. to display the count of each country next to a list of regions.
+ *
+ * @param property The property, e.g. country.
+ * @param values   The values of the property and their counts, the most frequent first.
+ */
+public record Facet(String property, List<FacetValue> values) {
+
+    /**
+     * Compact constructor to copy the values.
+     */
+    public Facet {
+        values = List.copyOf(values);
+    }
+
+    /**
+     * A value of a property and the number of resources with this value.
+     *
+     * @param value The value as in a filter, e.g. FR for 'country eq FR'. Null for the resources without value.
+     * @param count The number of resources.
+     */
+    public record FacetValue(String value, long count) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.demis27.commons.restful.spring.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The changes of a resource collection since a watermark, for clients keeping a local copy in sync.
+ *
+ * @param changes   The resources created or updated since the watermark, from the oldest change to the newest.
+ * @param deletions The identifiers of the resources deleted since the watermark.
+ * @param watermark The watermark to send to get the next changes, opaque for the clients.
+ * @param hasMore   `true` if there are more changes than returned, the client should ask again with the new watermark.
+ * @param <D>       The type of the resources.
+ */
+public record ResourceChanges<D>(List<D> changes, List<String> deletions, String watermark, boolean hasMore) {
+
+    /**
+     * Compact constructor to copy the lists.
+     */
+    public ResourceChanges {
+        changes = List.copyOf(changes);
+        deletions = List.copyOf(deletions);
+    }
+
+    /**
+     * Converts the resources, e.g. from domain objects to DTOs.
+     *
+     * @param mapper The conversion of a resource.
+     * @param <T>    The type of the converted resources.
+     * @return The changes with the converted resources.
+     */
+    public <T> ResourceChanges<T> map(Function<D, T> mapper) {
+        return new ResourceChanges<>(changes.stream().map(mapper).toList(), deletions, watermark, hasMore);
+    }
+}
@@ -0,0 +1,68 @@
+package com.demis27.commons.restful.spring.service;
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ResourcePort} decorator that coalesces identical concurrent requests, e.g. when hundreds of clients ask
+ * for the same page at the same moment: one query runs, and all the callers receive its result.
+ * Requests are identical when their normalized forms are equal, see {@link APIResourcesRequest#normalized()}.
+ * The counts ignore the range, so the clients reading different pages with the same filters share the count.
+ * Only the list and the count are decorated: a service also exposing the changes or the facets of the resources
+ * takes the adapter as its other port, see {@link ResourceService}.
+ * With a {@link ResourceLimiter}, only the caller running the query takes a slot of the resource: the callers waiting
+ * for its result never take one, so a burst of identical requests is not rejected by the limiter.
+ * For example:
+ * new CoalescingResourcePort&lt;&gt;(jpaAdapter, limiter);
+ *
+ * @param <D> The type of the resources.
+ */
+public class CoalescingResourcePort<D> implements ResourcePort<D> {
+
+    private final ResourcePort<D> delegate;
+
+    private final ResourceLimiter limiter;
+
+    private final SingleFlight<APIResourcesRequest, List<D>> pages = new SingleFlight<>();
+
+    private final SingleFlight<APIResourcesRequest, Long> counts = new SingleFlight<>();
+
+    /**
+     * @param delegate The port running the queries.
+     */
+    public CoalescingResourcePort(ResourcePort<D> delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * @param delegate The port running the queries.
+     * @param limiter  The limiter running the queries, null to not limit them.
+     */
+    public CoalescingResourcePort(ResourcePort<D> delegate, ResourceLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public List<D> getAllResources(APIResourcesRequest request) {
+        return pages.execute(request.normalized(), () -> limited(request, () -> delegate.getAllResources(request)));
+    }
+
+    @Override
+    public Long countResources(APIResourcesRequest request) {
+        return counts.execute(request.normalized().withRange(null), () -> limited(request, () -> delegate.countResources(request)));
+    }
+
+    private <T> T limited(APIResourcesRequest request, Supplier<T> query) {
+        return limiter == null ? query.get() : limiter.execute(request, query);
+    }
+
+    /**
+     * @return The number of callers waiting for an identical request run by another caller.
+     */
+    int waiting() {
+        return pages.waiting() + counts.waiting();
+    }
+}
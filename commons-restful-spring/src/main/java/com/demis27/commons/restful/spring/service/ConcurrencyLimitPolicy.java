@@ -0,0 +1,56 @@
+package com.demis27.commons.restful.spring.service;
+
+import java.time.Duration;
+
+/**
+ * The limits of a {@link ConcurrencyLimiter}. The limit of concurrent calls starts at `initialLimit`, grows by one
+ * each time a full window of calls completes under `latencyThreshold`, and is cut by 10% when a call started after
+ * the last cut is slower, always between `minLimit` and `maxLimit`.
+ *
+ * @param initialLimit     The limit of concurrent calls before any call has completed.
+ * @param minLimit         The lowest limit, the calls always allowed even when the resource is slow.
+ * @param maxLimit         The highest limit, e.g. a fraction of the connection pool.
+ * @param latencyThreshold The latency above which a call is considered slow.
+ * @param maxWait          The maximum time a call waits for a slot before it is rejected, zero to never wait.
+ * @param maxQueueSize     The maximum number of calls waiting for a slot, zero to never wait.
+ * @param retryAfter       The delay suggested to the clients of a rejected call.
+ */
+public record ConcurrencyLimitPolicy(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold,
+                                     Duration maxWait, int maxQueueSize, Duration retryAfter) {
+
+    /**
+     * A policy for a pool of about 50 connections: 10 calls at first, between 2 and 40, slow above 500 milliseconds,
+     * 50 calls waiting 100 milliseconds at most, and a retry after 1 second.
+     */
+    public static final ConcurrencyLimitPolicy DEFAULT = new ConcurrencyLimitPolicy(10, 2, 40, Duration.ofMillis(500),
+            Duration.ofMillis(100), 50, Duration.ofSeconds(1));
+
+    /**
+     * Compact constructor to validate the arguments.
+     *
+     * @throws IllegalArgumentException if a limit or a duration is out of range.
+     */
+    public ConcurrencyLimitPolicy {
+        if (minLimit <= 0) {
+            throw new IllegalArgumentException("The minimum limit must be greater than 0");
+        }
+        if (maxLimit < minLimit) {
+            throw new IllegalArgumentException("The maximum limit must be greater than or equal to the minimum limit");
+        }
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("The initial limit must be between the minimum and the maximum limits");
+        }
+        if (latencyThreshold == null || latencyThreshold.isNegative() || latencyThreshold.isZero()) {
+            throw new IllegalArgumentException("The latency threshold must be greater than 0");
+        }
+        if (maxWait == null || maxWait.isNegative()) {
+            throw new IllegalArgumentException("The maximum wait must be positive");
+        }
+        if (maxQueueSize < 0) {
+            throw new IllegalArgumentException("The maximum queue size must be positive");
+        }
+        if (retryAfter == null || retryAfter.isNegative()) {
+            throw new IllegalArgumentException("The retry after delay must be positive");
+        }
+    }
+}
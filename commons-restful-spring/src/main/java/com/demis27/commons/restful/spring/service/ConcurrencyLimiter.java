@@ -0,0 +1,186 @@
+package com.demis27.commons.restful.spring.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of concurrent calls to a resource, with a limit adapting to the observed latency (AIMD):
+ * the limit grows by one each time a full window of calls completes under the latency threshold, and is cut by 10%
+ * when a call is slower. A burst of slow calls cuts the limit once: a slow call cuts it again only if it started after
+ * the last cut. When the limit is reached, a call waits for a slot, bounded in time and in queue size, then is rejected
+ * with a {@link ResourceOverloadedException}. The waiting calls get the slots in their order of arrival.
+ */
+public class ConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    /**
+     * A call waiting for a slot, signalled when the slot is given to it.
+     */
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    private final String resourceName;
+
+    private final ConcurrencyLimitPolicy policy;
+
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+    private double limit;
+
+    private long started;
+
+    private long startedAtLastCut;
+
+    private int inFlight;
+
+    private long completed;
+
+    private long rejected;
+
+    /**
+     * @param resourceName The name of the resource, for the stats and the exceptions.
+     * @param policy       The limits.
+     * @param clock        The clock to measure the latency of the calls.
+     */
+    public ConcurrencyLimiter(String resourceName, ConcurrencyLimitPolicy policy, Clock clock) {
+        this.resourceName = resourceName;
+        this.policy = policy;
+        this.clock = clock;
+        this.limit = policy.initialLimit();
+    }
+
+    /**
+     * Runs a call when a slot is available, and adapts the limit to its latency. A failed call never increases the limit.
+     *
+     * @param call The call.
+     * @return The result of the call.
+     * @throws ResourceOverloadedException if no slot is available in time.
+     */
+    public <T> T execute(Supplier<T> call) {
+        long sequence = acquire();
+        Instant start = clock.instant();
+        boolean succeeded = false;
+        try {
+            T result = call.get();
+            succeeded = true;
+            return result;
+        } finally {
+            release(sequence, Duration.between(start, clock.instant()), succeeded);
+        }
+    }
+
+    /**
+     * @return A snapshot of the limit and the counters.
+     */
+    public LimiterStats stats() {
+        lock.lock();
+        try {
+            return new LimiterStats(resourceName, (int) limit, inFlight, waiters.size(), completed, rejected);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a slot, the waiting calls getting the released slots in their order of arrival.
+     *
+     * @return The sequence number of the call.
+     */
+    private long acquire() {
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                return started++;
+            }
+            if (waiters.size() >= policy.maxQueueSize()) {
+                throw reject();
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            waiters.addLast(waiter);
+            try {
+                long remaining = policy.maxWait().toNanos();
+                while (!waiter.granted && remaining > 0) {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                giveUp(waiter);
+                throw reject();
+            }
+            if (!waiter.granted) {
+                giveUp(waiter);
+                throw reject();
+            }
+            return started++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a waiter leaving the queue, and gives back its slot if it was granted meanwhile.
+     */
+    private void giveUp(Waiter waiter) {
+        if (waiter.granted) {
+            inFlight--;
+            grant();
+        } else {
+            waiters.remove(waiter);
+        }
+    }
+
+    /**
+     * Gives the free slots to the first waiters.
+     */
+    private void grant() {
+        while (!waiters.isEmpty() && inFlight < (int) limit) {
+            Waiter waiter = waiters.removeFirst();
+            waiter.granted = true;
+            inFlight++;
+            waiter.condition.signal();
+        }
+    }
+
+    private ResourceOverloadedException reject() {
+        rejected++;
+        return new ResourceOverloadedException(resourceName, policy.retryAfter());
+    }
+
+    private void release(long sequence, Duration latency, boolean succeeded) {
+        lock.lock();
+        try {
+            inFlight--;
+            completed++;
+            if (latency.compareTo(policy.latencyThreshold()) > 0) {
+                // The calls started before the last cut saw the same overload, only one cut is applied for them
+                if (sequence >= startedAtLastCut) {
+                    limit = Math.max(policy.minLimit(), limit * BACKOFF_RATIO);
+                    startedAtLastCut = started;
+                }
+            } else if (succeeded) {
+                limit = Math.min(policy.maxLimit(), limit + 1 / limit);
+            }
+            grant();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.demis27.commons.restful.spring.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small thread-safe cache, bounded in size and in time. When the cache is full, the least recently used entry
+ * is evicted, and an entry is never returned after its time to live.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public final class ExpiringCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private final Clock clock;
+
+    private final long ttlMillis;
+
+    private final Map<K, Entry<V>> entries;
+
+    /**
+     * @param maxEntries The maximum number of entries.
+     * @param ttl        The time to live of an entry.
+     * @param clock      The clock to compute the expiration.
+     * @throws IllegalArgumentException if the maximum number of entries or the time to live is not positive.
+     */
+    public ExpiringCache(int maxEntries, Duration ttl, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("The maximum number of entries must be greater than 0");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("The time to live must be greater than 0");
+        }
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return The value of the key, or null if there is none or it has expired.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry)) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Adds or replaces the value of a key, with a new time to live.
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.millis() + ttlMillis));
+    }
+
+    /**
+     * Adds the value of a key, unless the key already has a value that has not expired.
+     *
+     * @return `true` if the value was added.
+     */
+    public synchronized boolean putIfAbsent(K key, V value) {
+        if (get(key) != null) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @return The value of the key, or null if there is none or it has expired.
+     */
+    public synchronized V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        return entry == null || isExpired(entry) ? null : entry.value();
+    }
+
+    /**
+     * @return The number of entries, including the expired ones not yet evicted.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return clock.millis() >= entry.expiresAt();
+    }
+}
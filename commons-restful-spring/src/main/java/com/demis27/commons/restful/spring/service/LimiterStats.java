@@ -0,0 +1,14 @@
+package com.demis27.commons.restful.spring.service;
+
+/**
+ * A snapshot of the state of a {@link ConcurrencyLimiter}.
+ *
+ * @param resourceName The name of the resource of the limiter.
+ * @param limit        The current limit of concurrent calls.
+ * @param inFlight     The number of calls running.
+ * @param waiting      The number of calls waiting for a slot.
+ * @param completed    The number of calls completed since the creation of the limiter.
+ * @param rejected     The number of calls rejected since the creation of the limiter.
+ */
+public record LimiterStats(String resourceName, int limit, int inFlight, int waiting, long completed, long rejected) {
+}
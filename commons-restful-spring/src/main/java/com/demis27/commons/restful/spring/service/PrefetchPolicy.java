@@ -0,0 +1,54 @@
+package com.demis27.commons.restful.spring.service;
+
+import java.time.Duration;
+
+/**
+ * The limits of a {@link PrefetchingResourcePort}.
+ *
+ * @param maxEntries              The maximum number of prefetched pages kept in memory.
+ * @param ttl                     The time a prefetched page can be served, it bounds the staleness of the data.
+ * @param maxConcurrentPrefetches The maximum number of prefetches running at the same time, so they cannot take
+ *                                all the connections of the pool. A prefetch is skipped when the budget is exhausted.
+ * @param maxWait                 The maximum time a request waits for the prefetch of its page still in progress,
+ *                                e.g. queued in a busy executor, before it queries the delegate, zero to never wait.
+ */
+public record PrefetchPolicy(int maxEntries, Duration ttl, int maxConcurrentPrefetches, Duration maxWait) {
+
+    /**
+     * A policy for a few hundred concurrent clients: 256 pages, 30 seconds, 4 concurrent prefetches
+     * and 100 milliseconds of wait.
+     */
+    public static final PrefetchPolicy DEFAULT = new PrefetchPolicy(256, Duration.ofSeconds(30), 4, Duration.ofMillis(100));
+
+    /**
+     * Compact constructor to validate the arguments.
+     *
+     * @throws IllegalArgumentException if a limit is not positive.
+     */
+    public PrefetchPolicy {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("The maximum number of entries must be greater than 0");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("The time to live must be greater than 0");
+        }
+        if (maxConcurrentPrefetches <= 0) {
+            throw new IllegalArgumentException("The maximum number of concurrent prefetches must be greater than 0");
+        }
+        if (maxWait == null || maxWait.isNegative()) {
+            throw new IllegalArgumentException("The maximum wait must be positive");
+        }
+    }
+
+    /**
+     * Creates a policy waiting 100 milliseconds at most for a prefetch in progress.
+     *
+     * @param maxEntries              The maximum number of prefetched pages kept in memory.
+     * @param ttl                     The time a prefetched page can be served.
+     * @param maxConcurrentPrefetches The maximum number of prefetches running at the same time.
+     * @throws IllegalArgumentException if a limit is not positive.
+     */
+    public PrefetchPolicy(int maxEntries, Duration ttl, int maxConcurrentPrefetches) {
+        this(maxEntries, ttl, maxConcurrentPrefetches, Duration.ofMillis(100));
+    }
+}
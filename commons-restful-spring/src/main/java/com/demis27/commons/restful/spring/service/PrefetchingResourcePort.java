@@ -0,0 +1,155 @@
+package com.demis27.commons.restful.spring.service;
+
+import com.demis27.commons.restful.HeaderPageable;
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link ResourcePort} decorator that fetches the next page in the background after serving a page, for clients
+ * paging forward. The next call for the next page, with the same filters and sorts, is served from memory, or waits
+ * for the prefetch in progress instead of running the same query again, during the maximum wait of the
+ * {@link PrefetchPolicy} at most, then queries the delegate.
+ * The next page is known from the total returned by {@link #countResources(APIResourcesRequest)}, called before
+ * {@link #getAllResources(APIResourcesRequest)} by {@code ResourceController}: without a known total, or after a page
+ * that is not full, nothing is prefetched. A prefetched page is served once, and only during the time to live of the
+ * {@link PrefetchPolicy}, which bounds the staleness of the data.
+ * The changes and the facets are not prefetched, the service exposing them calls the adapter directly.
+ * For example:
+ * new PrefetchingResourcePort&lt;&gt;(jpaAdapter, PrefetchPolicy.DEFAULT, Executors.newVirtualThreadPerTaskExecutor());
+ *
+ * @param <D> The type of the resources.
+ */
+public class PrefetchingResourcePort<D> implements ResourcePort<D> {
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
+    private final ResourcePort<D> delegate;
+
+    private final Executor executor;
+
+    private final int maxConcurrentPrefetches;
+
+    private final Duration maxWait;
+
+    private final Semaphore budget;
+
+    private final ExpiringCache<APIResourcesRequest, CompletableFuture<List<D>>> pages;
+
+    private final ExpiringCache<APIResourcesRequest, Long> totals;
+
+    /**
+     * @param delegate The port running the queries.
+     * @param policy   The limits of the prefetch.
+     * @param executor The executor running the prefetches.
+     */
+    public PrefetchingResourcePort(ResourcePort<D> delegate, PrefetchPolicy policy, Executor executor) {
+        this(delegate, policy, executor, Clock.systemUTC());
+    }
+
+    /**
+     * @param delegate The port running the queries.
+     * @param policy   The limits of the prefetch.
+     * @param executor The executor running the prefetches.
+     * @param clock    The clock to expire the prefetched pages.
+     */
+    public PrefetchingResourcePort(ResourcePort<D> delegate, PrefetchPolicy policy, Executor executor, Clock clock) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.maxConcurrentPrefetches = policy.maxConcurrentPrefetches();
+        this.maxWait = policy.maxWait();
+        this.budget = new Semaphore(maxConcurrentPrefetches);
+        this.pages = new ExpiringCache<>(policy.maxEntries(), policy.ttl(), clock);
+        this.totals = new ExpiringCache<>(policy.maxEntries(), policy.ttl(), clock);
+    }
+
+    @Override
+    public List<D> getAllResources(APIResourcesRequest request) {
+        APIResourcesRequest key = request.normalized();
+        List<D> result = prefetched(key);
+        if (result == null) {
+            result = delegate.getAllResources(request);
+        }
+        prefetchNextPage(key, result.size());
+        return result;
+    }
+
+    @Override
+    public Long countResources(APIResourcesRequest request) {
+        Long total = delegate.countResources(request);
+        if (total != null) {
+            totals.put(request.normalized().withRange(null), total);
+        }
+        return total;
+    }
+
+    /**
+     * @return The number of prefetches running or waiting for the executor.
+     */
+    public int runningPrefetches() {
+        return maxConcurrentPrefetches - budget.availablePermits();
+    }
+
+    private List<D> prefetched(APIResourcesRequest key) {
+        CompletableFuture<List<D>> page = pages.remove(key);
+        if (page == null) {
+            return null;
+        }
+        try {
+            return page.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | CancellationException | TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void prefetchNextPage(APIResourcesRequest key, int resultSize) {
+        HeaderPageable current = key.rangeHeaderValue() == null
+                ? new HeaderPageable(key.resourceName(), 0, DEFAULT_PAGE_SIZE, -1)
+                : HeaderPageable.parseRangeHeader(key.rangeHeaderValue());
+        Long total = totals.get(key.withRange(null));
+        if (total == null || resultSize < current.size()) {
+            return;
+        }
+        HeaderPageable next = HeaderPageable.toBuilder(current).total(total).build().nextPage();
+        if (next.page() == current.page()) {
+            return;
+        }
+        APIResourcesRequest nextKey = key.withRange(next.toRangeHeader(false));
+        if (!budget.tryAcquire()) {
+            return;
+        }
+        CompletableFuture<List<D>> page = new CompletableFuture<>();
+        if (!pages.putIfAbsent(nextKey, page)) {
+            budget.release();
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    page.complete(delegate.getAllResources(nextKey));
+                } catch (RuntimeException e) {
+                    page.completeExceptionally(e);
+                } finally {
+                    budget.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pages.remove(nextKey);
+            page.cancel(false);
+            budget.release();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.demis27.commons.restful.spring.service;
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+import com.demis27.commons.restful.spring.model.ResourceChanges;
+
+/**
+ * A {@link ResourcePort} able to return the changes of the resources since a watermark.
+ *
+ * @param <D> The type of the resources.
+ */
+public interface ResourceChangesPort<D> extends ResourcePort<D> {
+
+    /**
+     * Returns the resources created, updated or deleted since a watermark, and matching the filters of the request.
+     * The size of the range of the request, if any, limits the number of changes returned.
+     *
+     * @param request   The request, the sorts are ignored.
+     * @param watermark The watermark returned by the previous call, null to get all the resources.
+     * @return The changes and the new watermark.
+     * @throws IllegalArgumentException if the watermark is invalid.
+     */
+    ResourceChanges<D> getChangesSince(APIResourcesRequest request, String watermark);
+}
@@ -0,0 +1,24 @@
+package com.demis27.commons.restful.spring.service;
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+import com.demis27.commons.restful.spring.model.Facet;
+
+import java.util.List;
+
+/**
+ * A {@link ResourcePort} able to count the resources per value of some properties.
+ *
+ * @param <D> The type of the resources.
+ */
+public interface ResourceFacetsPort<D> extends ResourcePort<D> {
+
+    /**
+     * Counts the resources matching the filters of the request, per value of each property.
+     *
+     * @param request    The request, the range and the sorts are ignored.
+     * @param properties The properties.
+     * @return The facets, in the order of the properties.
+     * @throws IllegalArgumentException if a property is not allowed.
+     */
+    List<Facet> getFacets(APIResourcesRequest request, List<String> properties);
+}
@@ -0,0 +1,63 @@
+package com.demis27.commons.restful.spring.service;
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Isolates the resources from each other, like bulkheads: each resource, identified by
+ * {@link APIResourcesRequest#resourceName()}, has its own {@link ConcurrencyLimiter}, so a slow resource cannot take
+ * all the connections of the pool and starve the other ones. The calls exceeding the limit are rejected with a
+ * {@link ResourceOverloadedException}. A {@link ResourceService} built with a limiter runs all its calls through it,
+ * and the services can share the same limiter.
+ * For example:
+ * new ResourceLimiter(ConcurrencyLimitPolicy.DEFAULT);
+ */
+public class ResourceLimiter {
+
+    private final ConcurrencyLimitPolicy policy;
+
+    private final Clock clock;
+
+    private final ConcurrentMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * @param policy The limits of each resource.
+     */
+    public ResourceLimiter(ConcurrencyLimitPolicy policy) {
+        this(policy, Clock.systemUTC());
+    }
+
+    ResourceLimiter(ConcurrencyLimitPolicy policy, Clock clock) {
+        this.policy = policy;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs a call within the limit of the resource of the request.
+     *
+     * @param request The request, identifying the resource.
+     * @param call    The call.
+     * @param <T>     The type of the result.
+     * @return The result of the call.
+     * @throws ResourceOverloadedException if the limit of the resource is reached and no slot is released in time.
+     */
+    public <T> T execute(APIResourcesRequest request, Supplier<T> call) {
+        return limiters.computeIfAbsent(request.resourceName(), resourceName -> new ConcurrencyLimiter(resourceName, policy, clock))
+                .execute(call);
+    }
+
+    /**
+     * @return The live stats of the limiters, by resource name.
+     */
+    public Map<String, LimiterStats> stats() {
+        Map<String, LimiterStats> stats = new TreeMap<>();
+        limiters.forEach((resourceName, limiter) -> stats.put(resourceName, limiter.stats()));
+        return stats;
+    }
+}
@@ -0,0 +1,32 @@
+package com.demis27.commons.restful.spring.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a call is rejected because its resource already runs as many calls as its limit allows,
+ * see {@link ConcurrencyLimiter}. The web layer answers with a 503 status and a `Retry-After` header.
+ */
+public class ResourceOverloadedException extends RuntimeException {
+
+    private final String resourceName;
+
+    private final Duration retryAfter;
+
+    /**
+     * @param resourceName The name of the overloaded resource.
+     * @param retryAfter   The delay suggested to the client before retrying.
+     */
+    public ResourceOverloadedException(String resourceName, Duration retryAfter) {
+        super("Resource " + resourceName + " is overloaded, retry after " + retryAfter.toMillis() + " ms");
+        this.resourceName = resourceName;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,22 +1,104 @@
 package com.demis27.commons.restful.spring.service;
 
 import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+import com.demis27.commons.restful.spring.model.Facet;
+import com.demis27.commons.restful.spring.model.ResourceChanges;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 public abstract class ResourceService<D> {
 
     protected final ResourcePort<D> support;
 
+    private final ResourceLimiter limiter;
+
     protected ResourceService(ResourcePort<D> support) {
+        this(support, null);
+    }
+
+    /**
+     * @param support The port of the resources.
+     * @param limiter The limiter running the calls of the service, null to not limit them. A port coalescing the
+     *                requests takes the limiter instead, see {@link CoalescingResourcePort}: each coalesced caller
+     *                would otherwise take a slot.
+     */
+    protected ResourceService(ResourcePort<D> support, ResourceLimiter limiter) {
         this.support = support;
+        this.limiter = limiter;
     }
 
     public List<D> getAllResources(APIResourcesRequest request) {
-        return support.getAllResources(request);
+        return limited(request, () -> support.getAllResources(request));
     }
 
     public Long countResources(APIResourcesRequest request) {
-        return support.countResources(request);
+        return limited(request, () -> support.countResources(request));
+    }
+
+    /**
+     * Returns the changes of the resources since a watermark, within the limit of the resource.
+     *
+     * @param request   The request, the sorts are ignored.
+     * @param watermark The watermark returned by the previous call, null to get all the resources.
+     * @return The changes and the new watermark.
+     * @throws UnsupportedOperationException if the service has no port tracking the changes, see {@link #changesPort()}.
+     */
+    public ResourceChanges<D> getChangesSince(APIResourcesRequest request, String watermark) {
+        ResourceChangesPort<D> changes = changesPort();
+        if (changes == null) {
+            throw new UnsupportedOperationException("The resource " + request.resourceName() + " does not track its changes");
+        }
+        return limited(request, () -> changes.getChangesSince(request, watermark));
+    }
+
+    /**
+     * Returns the port of the changes of the resources: the support, if it tracks them. A service whose support is a
+     * decorator only serving the list and the count, e.g. a {@link CoalescingResourcePort}, returns the adapter.
+     *
+     * @return The port of the changes, null if the resources are not tracked.
+     */
+    protected ResourceChangesPort<D> changesPort() {
+        return support instanceof ResourceChangesPort<D> changes ? changes : null;
+    }
+
+    /**
+     * Counts the resources matching the filters of the request, per value of each property, within the limit of the resource.
+     *
+     * @param request    The request, the range and the sorts are ignored.
+     * @param properties The properties.
+     * @return The facets in the order of the properties.
+     * @throws UnsupportedOperationException if the service has no port counting the facets, see {@link #facetsPort()}.
+     */
+    public List<Facet> getFacets(APIResourcesRequest request, List<String> properties) {
+        ResourceFacetsPort<D> facets = facetsPort();
+        if (facets == null) {
+            throw new UnsupportedOperationException("The resource " + request.resourceName() + " does not support facets");
+        }
+        return limited(request, () -> facets.getFacets(request, properties));
+    }
+
+    /**
+     * Returns the port of the facets of the resources: the support, if it counts them. A service whose support is a
+     * decorator only serving the list and the count, e.g. a {@link CoalescingResourcePort}, returns the adapter.
+     *
+     * @return The port of the facets, null if the facets are not supported.
+     */
+    protected ResourceFacetsPort<D> facetsPort() {
+        return support instanceof ResourceFacetsPort<D> facets ? facets : null;
+    }
+
+    /**
+     * Runs a call of the service within the limit of the resource, if the service has a limiter. The services exposing
+     * other ports, e.g. a {@link ResourceChangesPort} or a {@link ResourceFacetsPort}, call them through this method.
+     *
+     * @param request The request, identifying the resource.
+     * @param call    The call.
+     * @param <T>     The type of the result.
+     * @return The result of the call.
+     * @throws ResourceOverloadedException if the limit of the resource is reached.
+     */
+    protected <T> T limited(APIResourcesRequest request, Supplier<T> call) {
+        return limiter == null ? call.get() : limiter.execute(request, call);
     }
 }
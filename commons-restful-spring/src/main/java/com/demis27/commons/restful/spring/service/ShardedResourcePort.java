@@ -0,0 +1,150 @@
+package com.demis27.commons.restful.spring.service;
+
+import com.demis27.commons.restful.HeaderPageable;
+import com.demis27.commons.restful.QueryParamCompiler;
+import com.demis27.commons.restful.QueryParamSort;
+import com.demis27.commons.restful.spring.model.APIResourcesRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * A {@link ResourcePort} over resources partitioned across several ports, e.g. one database per tenant or per region.
+ * A request is sent to all the shards in parallel. For the range `a-b`, each shard returns its first `b+1` resources,
+ * which are merged in the order of the sorts to keep the resources `a` to `b`. The count is the sum of the counts of the shards.
+ * The merge must compare the resources as the shards sort them: by default, as {@link QueryParamCompiler#toComparator(Class, List)},
+ * with null values last in ascending order. Shards sorting otherwise, e.g. JPA adapters on H2, MySQL or SQL Server,
+ * which sort null values first, or with a collation, take the comparator of the merge. Without sort, the resources
+ * of the first shard come first.
+ * For example:
+ * new ShardedResourcePort&lt;&gt;(List.of(europeAdapter, asiaAdapter), Executors.newVirtualThreadPerTaskExecutor(),
+ *         sorts -&gt; QueryParamCompiler.toComparator(Region.class, sorts, true));
+ *
+ * @param <D> The type of the resources.
+ */
+public class ShardedResourcePort<D> implements ResourcePort<D> {
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
+    /**
+     * The position of the merge in the resources of a shard.
+     */
+    private static final class Cursor<D> {
+        private final int shard;
+        private final List<D> resources;
+        private int position;
+
+        private Cursor(int shard, List<D> resources) {
+            this.shard = shard;
+            this.resources = resources;
+        }
+
+        private D current() {
+            return resources.get(position);
+        }
+    }
+
+    private final Function<List<QueryParamSort>, Comparator<D>> comparators;
+
+    private final List<ResourcePort<D>> shards;
+
+    private final Executor executor;
+
+    /**
+     * @param type     The type of the resources, to compare them with the sorts of the requests.
+     * @param shards   The ports of the shards.
+     * @param executor The executor running the requests to the shards.
+     * @throws IllegalArgumentException if there is no shard.
+     */
+    public ShardedResourcePort(Class<D> type, List<? extends ResourcePort<D>> shards, Executor executor) {
+        this(shards, executor, sorts -> QueryParamCompiler.toComparator(type, sorts));
+    }
+
+    /**
+     * @param shards      The ports of the shards.
+     * @param executor    The executor running the requests to the shards.
+     * @param comparators The comparator of the merge for the sorts of a request, comparing the resources as the shards sort them.
+     * @throws IllegalArgumentException if there is no shard.
+     */
+    public ShardedResourcePort(List<? extends ResourcePort<D>> shards, Executor executor, Function<List<QueryParamSort>, Comparator<D>> comparators) {
+        if (shards == null || shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.executor = executor;
+        this.comparators = comparators;
+    }
+
+    @Override
+    public List<D> getAllResources(APIResourcesRequest request) {
+        HeaderPageable range = request.rangeHeaderValue() == null
+                ? new HeaderPageable(request.resourceName(), 0, DEFAULT_PAGE_SIZE, -1)
+                : HeaderPageable.parseRangeHeader(request.rangeHeaderValue());
+        long offset = (long) range.page() * range.size();
+        long end = offset + range.size() - 1;
+        // A range needs at least two elements, the extra resource of each shard is ignored by the merge.
+        APIResourcesRequest shardRequest = request.withRange("%s=0-%d".formatted(range.elementName(), Math.max(end, 1)));
+
+        List<List<D>> results = scatter(shard -> shard.getAllResources(shardRequest));
+        List<QueryParamSort> sorts = request.sortQueryParam() == null || request.sortQueryParam().isBlank()
+                ? List.of() : QueryParamSort.parse(request.sortQueryParam());
+        return merge(results, sorts.isEmpty() ? (first, second) -> 0 : comparators.apply(sorts), offset, range.size());
+    }
+
+    @Override
+    public Long countResources(APIResourcesRequest request) {
+        return scatter(shard -> shard.countResources(request)).stream()
+                .mapToLong(count -> count == null ? 0L : count)
+                .sum();
+    }
+
+    private <R> List<R> scatter(Function<ResourcePort<D>, R> call) {
+        List<CompletableFuture<R>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> call.apply(shard), executor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Merges the sorted resources of the shards, the equal resources in the order of the shards, and keeps the given window.
+     */
+    private List<D> merge(List<List<D>> results, Comparator<D> comparator, long offset, int size) {
+        Comparator<Cursor<D>> cursorComparator = (first, second) -> {
+            int compare = comparator.compare(first.current(), second.current());
+            return compare != 0 ? compare : Integer.compare(first.shard, second.shard);
+        };
+        PriorityQueue<Cursor<D>> queue = new PriorityQueue<>(results.size(), cursorComparator);
+        for (int shard = 0; shard < results.size(); shard++) {
+            if (!results.get(shard).isEmpty()) {
+                queue.add(new Cursor<>(shard, results.get(shard)));
+            }
+        }
+        List<D> window = new ArrayList<>(size);
+        long index = 0;
+        while (!queue.isEmpty() && window.size() < size) {
+            Cursor<D> cursor = queue.poll();
+            if (index++ >= offset) {
+                window.add(cursor.current());
+            }
+            cursor.position++;
+            if (cursor.position < cursor.resources.size()) {
+                queue.add(cursor);
+            }
+        }
+        return window;
+    }
+}
@@ -0,0 +1,82 @@
+package com.demis27.commons.restful.spring.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key into one execution: the first caller runs the call, and the callers
+ * arriving while it runs wait for it and receive the same result, or the same exception.
+ * Nothing is kept once the call is completed, so a call arriving later runs again: it is not a cache.
+ *
+ * @param <K> The type of the keys, with a consistent equals and hashCode.
+ * @param <V> The type of the results.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * Runs a call, or waits for the call with the same key already running.
+     *
+     * @param key  The key of the call.
+     * @param call The call.
+     * @return The result of the call.
+     * @throws RuntimeException the exception thrown by the call.
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, flight);
+        if (running != null) {
+            waiting.incrementAndGet();
+            try {
+                return await(running);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+        try {
+            V result = call.get();
+            calls.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            calls.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of calls running.
+     */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    /**
+     * @return The number of callers waiting for a call run by another caller.
+     */
+    int waiting() {
+        return waiting.get();
+    }
+
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.demis27.commons.restful.spring.infrastructure.aot
+
+import com.demis27.commons.restful.spring.infrastructure.jpa.ChangeTracking
+import com.demis27.commons.restful.spring.infrastructure.jpa.EntityMapper
+import com.demis27.commons.restful.spring.infrastructure.jpa.JpaChangeTrackingResourceAdapter
+import com.demis27.commons.restful.spring.infrastructure.jpa.JpaResourceAdapter
+import com.demis27.commons.restful.spring.infrastructure.jpa.TrackedRegionEntity
+import com.demis27.commons.restful.spring.infrastructure.jpa.TrackedRegionRepository
+import org.springframework.aot.generate.ClassNameGenerator
+import org.springframework.aot.generate.DefaultGenerationContext
+import org.springframework.aot.generate.InMemoryGeneratedFiles
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates
+import org.springframework.beans.factory.aot.BeanRegistrationAotProcessor
+import org.springframework.beans.factory.aot.BeanRegistrationCode
+import org.springframework.beans.factory.support.DefaultListableBeanFactory
+import org.springframework.beans.factory.support.RegisteredBean
+import org.springframework.beans.factory.support.RootBeanDefinition
+import org.springframework.core.io.support.SpringFactoriesLoader
+import org.springframework.javapoet.ClassName
+import spock.lang.Specification
+
+class ChangeTrackingAotProcessorSpec extends Specification {
+
+    static class TrackedRegionAdapter extends JpaChangeTrackingResourceAdapter<String, TrackedRegionEntity, Long> {
+        TrackedRegionAdapter(TrackedRegionRepository repository) {
+            super(repository, { it.code } as EntityMapper<TrackedRegionEntity, String>, TrackedRegionEntity, ChangeTracking.of("revision", "id"))
+        }
+    }
+
+    static class RegionAdapter extends JpaResourceAdapter<String, TrackedRegionEntity, Long> {
+        RegionAdapter(TrackedRegionRepository repository) {
+            super(repository, { it.code } as EntityMapper<TrackedRegionEntity, String>)
+        }
+    }
+
+    def beanFactory = new DefaultListableBeanFactory()
+
+    def generationContext = new DefaultGenerationContext(new ClassNameGenerator(ClassName.get("com.example", "Application")), new InMemoryGeneratedFiles())
+
+    RegisteredBean registeredBean(Class<?> beanClass) {
+        beanFactory.registerBeanDefinition("adapter", new RootBeanDefinition(beanClass))
+        RegisteredBean.of(beanFactory, "adapter")
+    }
+
+    def "should be registered in the aot factories"() {
+        expect:
+        SpringFactoriesLoader.forResourceLocation("META-INF/spring/aot.factories")
+                .load(BeanRegistrationAotProcessor)*.class.contains(ChangeTrackingAotProcessor)
+    }
+
+    def "should register the entities of the change tracking adapters"() {
+        when:
+        def contribution = new ChangeTrackingAotProcessor().processAheadOfTime(registeredBean(TrackedRegionAdapter))
+        contribution.applyTo(generationContext, Mock(BeanRegistrationCode))
+
+        then:
+        RuntimeHintsPredicates.reflection().onField(TrackedRegionEntity.getDeclaredField("revision")).test(generationContext.runtimeHints)
+        RuntimeHintsPredicates.reflection().onMethod(TrackedRegionEntity.getMethod("getRevision")).test(generationContext.runtimeHints)
+    }
+
+    def "should ignore the other beans"() {
+        expect:
+        new ChangeTrackingAotProcessor().processAheadOfTime(registeredBean(RegionAdapter)) == null
+    }
+}
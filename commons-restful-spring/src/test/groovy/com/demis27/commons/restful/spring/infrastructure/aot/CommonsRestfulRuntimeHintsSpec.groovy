@@ -0,0 +1,51 @@
+package com.demis27.commons.restful.spring.infrastructure.aot
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import com.demis27.commons.restful.spring.model.Facet
+import com.demis27.commons.restful.spring.model.ResourceChanges
+import com.demis27.commons.restful.spring.service.LimiterStats
+import org.springframework.aot.hint.RuntimeHints
+import org.springframework.aot.hint.RuntimeHintsRegistrar
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates
+import org.springframework.core.io.support.SpringFactoriesLoader
+import spock.lang.Specification
+
+class CommonsRestfulRuntimeHintsSpec extends Specification {
+
+    static record Region(String code, Integer population) {
+    }
+
+    def hints = new RuntimeHints()
+
+    def "should be registered in the aot factories"() {
+        expect:
+        SpringFactoriesLoader.forResourceLocation("META-INF/spring/aot.factories")
+                .load(RuntimeHintsRegistrar)*.class.contains(CommonsRestfulRuntimeHints)
+    }
+
+    def "should register the records of the response bodies"() {
+        when:
+        new CommonsRestfulRuntimeHints().registerHints(hints, getClass().classLoader)
+
+        then:
+        RuntimeHintsPredicates.reflection().onType(type).test(hints)
+        RuntimeHintsPredicates.reflection().onMethod(type.getMethod(accessor)).test(hints)
+
+        where:
+        type                | accessor
+        APIResourcesRequest | "filterQueryParam"
+        Facet               | "values"
+        Facet.FacetValue    | "count"
+        ResourceChanges     | "watermark"
+        LimiterStats        | "limit"
+    }
+
+    def "should register the resource types read by property name"() {
+        when:
+        CommonsRestfulRuntimeHints.registerResourceTypes(hints, Region)
+
+        then:
+        RuntimeHintsPredicates.reflection().onMethod(Region.getMethod("population")).test(hints)
+        RuntimeHintsPredicates.reflection().onField(Region.getDeclaredField("code")).test(hints)
+    }
+}
@@ -0,0 +1,157 @@
+package com.demis27.commons.restful.spring.infrastructure.jpa
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import jakarta.persistence.Entity
+import jakarta.persistence.Id
+import jakarta.persistence.Table
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+@Entity
+@Table(name = "tracked_region")
+class TrackedRegionEntity {
+    @Id
+    Long id
+    String code
+    String country
+    Long revision
+    Boolean deleted
+}
+
+interface TrackedRegionRepository extends JpaResourceRepository<TrackedRegionEntity, Long> {
+}
+
+class JpaChangeTrackingResourceAdapterSpec extends Specification {
+
+    @AutoCleanup
+    def database = new JpaTestDatabase("changes", TrackedRegionEntity)
+
+    def adapter = new JpaChangeTrackingResourceAdapter<String, TrackedRegionEntity, Long>(
+            database.repository(TrackedRegionRepository),
+            { TrackedRegionEntity entity -> entity.code } as EntityMapper<TrackedRegionEntity, String>,
+            TrackedRegionEntity,
+            ChangeTracking.of("revision", "id").withDeletedAttribute("deleted")) {}
+
+    static TrackedRegionEntity region(Long id, String code, String country, Long revision, boolean deleted = false) {
+        new TrackedRegionEntity(id: id, code: code, country: country, revision: revision, deleted: deleted)
+    }
+
+    static APIResourcesRequest request(String range, String filter) {
+        new APIResourcesRequest("regions", "/api/v1/regions", range, null, filter)
+    }
+
+    def setup() {
+        database.persist(
+                region(1, "BRE", "FR", 1),
+                region(2, "NOR", "FR", 2),
+                region(3, "BAV", "DE", 2),
+                region(4, "IDF", "FR", 3))
+    }
+
+    def "should return all the resources without a watermark, then the changes since the watermark"() {
+        when:
+        def initial = adapter.getChangesSince(request(null, null), null)
+
+        then:
+        initial.changes() == ["BRE", "NOR", "BAV", "IDF"]
+        initial.deletions() == []
+        !initial.hasMore()
+
+        when:
+        database.persist(region(2, "NOR", "FR", 4, true), region(5, "BER", "DE", 5), region(1, "BRE", "FR", 6))
+        def changes = adapter.getChangesSince(request(null, null), initial.watermark())
+
+        then:
+        changes.changes() == ["BER", "BRE"]
+        changes.deletions() == ["2"]
+        !changes.hasMore()
+
+        when:
+        def none = adapter.getChangesSince(request(null, null), changes.watermark())
+
+        then:
+        none.changes() == []
+        none.deletions() == []
+        none.watermark() == changes.watermark()
+    }
+
+    def "should return the changes in batches of the size of the range"() {
+        when:
+        def first = adapter.getChangesSince(request("regions=0-1", null), null)
+        def second = adapter.getChangesSince(request("regions=0-1", null), first.watermark())
+        def third = adapter.getChangesSince(request("regions=0-1", null), second.watermark())
+
+        then: "the resources with the same version are not skipped"
+        first.changes() == ["BRE", "NOR"]
+        first.hasMore()
+        second.changes() == ["BAV", "IDF"]
+        !second.hasMore()
+        third.changes() == []
+    }
+
+    def "should filter the changes"() {
+        when:
+        def changes = adapter.getChangesSince(request(null, "country eq FR"), null)
+        def none = adapter.getChangesSince(request(null, "country eq FR, country eq DE"), changes.watermark())
+
+        then:
+        changes.changes() == ["BRE", "NOR", "IDF"]
+        changes.deletions() == []
+        changes.watermark() == adapter.getChangesSince(request(null, null), null).watermark()
+        none.changes() == []
+        none.watermark() == changes.watermark()
+    }
+
+    def "should return a resource updated out of the filters as a deletion"() {
+        given:
+        def initial = adapter.getChangesSince(request(null, "country eq FR"), null)
+
+        when:
+        database.persist(region(1, "BRE", "DE", 4), region(5, "BER", "DE", 5), region(6, "COR", "FR", 6))
+        def changes = adapter.getChangesSince(request(null, "country eq FR"), initial.watermark())
+
+        then:
+        changes.changes() == ["COR"]
+        changes.deletions() == ["1", "5"]
+        !changes.hasMore()
+    }
+
+    def "should reject an invalid watermark"() {
+        when:
+        adapter.getChangesSince(request(null, null), watermark)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        watermark << ["not base64!", new ChangeWatermark("a", 1).encode(), Base64.urlEncoder.encodeToString("12".bytes)]
+    }
+
+    def "should reject invalid attributes"() {
+        when:
+        new JpaChangeTrackingResourceAdapter<String, TrackedRegionEntity, Long>(
+                database.repository(TrackedRegionRepository), { it.code } as EntityMapper<TrackedRegionEntity, String>, TrackedRegionEntity, tracking) {}
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        tracking << [
+                ChangeTracking.of("unknown", "id"),
+                ChangeTracking.of("revision", "id").withDeletedAttribute("code")
+        ]
+    }
+
+    def "should reject a change tracking without version or identifier"() {
+        when:
+        new ChangeTracking(version, id, null)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        version    | id
+        null       | "id"
+        "revision" | " "
+    }
+}
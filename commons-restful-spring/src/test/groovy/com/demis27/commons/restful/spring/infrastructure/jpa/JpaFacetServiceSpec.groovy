@@ -0,0 +1,182 @@
+package com.demis27.commons.restful.spring.infrastructure.jpa
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import com.demis27.commons.restful.spring.model.Facet
+import jakarta.persistence.Entity
+import jakarta.persistence.Id
+import jakarta.persistence.ManyToOne
+import jakarta.persistence.OneToMany
+import jakarta.persistence.Table
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.time.Duration
+
+@Entity
+@Table(name = "facet_region")
+class FacetRegionEntity {
+    @Id
+    Long id
+    String code
+    String country
+    String climate
+    Integer population
+}
+
+@Entity
+@Table(name = "facet_zone")
+class FacetZoneEntity {
+    @Id
+    String code
+    String name
+    @OneToMany(mappedBy = "zone")
+    List<FacetCityEntity> cities
+}
+
+@Entity
+@Table(name = "facet_city")
+class FacetCityEntity {
+    @Id
+    Long id
+    String country
+    @ManyToOne
+    FacetZoneEntity zone
+}
+
+class JpaFacetServiceSpec extends Specification {
+
+    @AutoCleanup
+    def database = new JpaTestDatabase("facets", FacetRegionEntity, FacetZoneEntity, FacetCityEntity)
+
+    def statistics = database.sessionFactory.statistics
+
+    static FacetRegionEntity region(Long id, String code, String country, String climate, Integer population) {
+        new FacetRegionEntity(id: id, code: code, country: country, climate: climate, population: population)
+    }
+
+    static APIResourcesRequest request(String filter) {
+        new APIResourcesRequest("regions", "/api/v1/regions", "regions=0-1", "code", filter)
+    }
+
+    static Facet facet(String property, Map<String, Long> values) {
+        new Facet(property, values.collect { new Facet.FacetValue(it.key, it.value) })
+    }
+
+    def setup() {
+        database.persist(
+                region(1, "BRE", "FR", "oceanic", 3400),
+                region(2, "NOR", "FR", "oceanic", 3300),
+                region(3, "IDF", "FR", "continental", 12300),
+                region(4, "BAV", "DE", "continental", 13400),
+                region(5, "BER", "DE", "continental", 3800),
+                region(6, "AND", "ES", null, 8500))
+        statistics.statisticsEnabled = true
+        statistics.clear()
+    }
+
+    def "should count the entities per value of the properties with one query"() {
+        given:
+        def service = new JpaFacetService<FacetRegionEntity>(database.entityManager, FacetRegionEntity, ["country", "climate"] as Set)
+
+        when:
+        def facets = service.getFacets(request(filter), ["country", "climate"])
+
+        then:
+        facets == expected
+        statistics.queryExecutionCount == 1
+
+        where:
+        filter                                || expected
+        null                                  || [facet("country", [FR: 3L, DE: 2L, ES: 1L]), facet("climate", [continental: 3L, oceanic: 2L, (null): 1L])]
+        "population gt 3500"                  || [facet("country", [DE: 2L, ES: 1L, FR: 1L]), facet("climate", [continental: 3L, (null): 1L])]
+        "country eq FR or climate eq oceanic" || [facet("country", [FR: 3L]), facet("climate", [oceanic: 2L, continental: 1L])]
+    }
+
+    def "should count the entities without the association in the null value of a nested property"() {
+        given:
+        def north = new FacetZoneEntity(code: "N", name: "North")
+        def south = new FacetZoneEntity(code: "S", name: "South")
+        database.persist(north, south,
+                new FacetCityEntity(id: 1, country: "FR", zone: north),
+                new FacetCityEntity(id: 2, country: "FR", zone: null),
+                new FacetCityEntity(id: 3, country: "FR", zone: null),
+                new FacetCityEntity(id: 4, country: "DE", zone: south))
+        statistics.clear()
+
+        when:
+        def facets = new JpaFacetService<FacetCityEntity>(database.entityManager, FacetCityEntity, ["country", "zone.code", "zone.name"] as Set, maxCombinedGroups)
+                .getFacets(new APIResourcesRequest("cities", "/api/v1/cities", null, null, null), ["country", "zone.code", "zone.name"])
+
+        then:
+        facets == [facet("country", [FR: 3L, DE: 1L]), facet("zone.code", [(null): 2L, N: 1L, S: 1L]), facet("zone.name", [(null): 2L, North: 1L, South: 1L])]
+        statistics.queryExecutionCount == queries
+
+        where:
+        maxCombinedGroups || queries
+        100               || 1
+        1                 || 4
+    }
+
+    def "should compute each facet with its own query when there are too many combined groups"() {
+        given:
+        def service = new JpaFacetService<FacetRegionEntity>(database.entityManager, FacetRegionEntity, ["country", "climate", "code"] as Set, 3)
+
+        when:
+        def facets = service.getFacets(request(null), ["country", "climate"])
+
+        then:
+        facets == [facet("country", [FR: 3L, DE: 2L, ES: 1L]), facet("climate", [continental: 3L, oceanic: 2L, (null): 1L])]
+        statistics.queryExecutionCount == 3
+    }
+
+    def "should not query the database when the filters are contradictory"() {
+        given:
+        def service = new JpaFacetService<FacetRegionEntity>(database.entityManager, FacetRegionEntity, ["country"] as Set)
+
+        expect:
+        service.getFacets(request("population gt 5000, population lt 1000"), ["country"]) == [new Facet("country", [])]
+        service.getFacets(request(null), []) == []
+        statistics.queryExecutionCount == 0
+    }
+
+    def "should cache the facets"() {
+        given:
+        def service = new JpaFacetService<FacetRegionEntity>(database.entityManager, FacetRegionEntity, ["country"] as Set, 10, Duration.ofMinutes(1))
+
+        when:
+        def first = service.getFacets(request("population gt 3500"), ["country"])
+        database.persist(region(7, "MAD", "ES", null, 6800))
+        def second = service.getFacets(new APIResourcesRequest("regions", "/api/v1/regions", "regions=10-19", null, " population gt 3500 "), ["country"])
+        def other = service.getFacets(request(null), ["country"])
+
+        then:
+        first == [facet("country", [DE: 2L, ES: 1L, FR: 1L])]
+        second == first
+        other == [facet("country", [FR: 3L, DE: 2L, ES: 2L])]
+        statistics.queryExecutionCount == 2
+    }
+
+    def "should reject a property not allowed"() {
+        given:
+        def service = new JpaFacetService<FacetRegionEntity>(database.entityManager, FacetRegionEntity, ["country"] as Set)
+
+        when:
+        service.getFacets(request(null), ["country", "population"])
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains("population")
+        statistics.queryExecutionCount == 0
+    }
+
+    def "should reject a property that does not exist or is reached through a collection: '#property'"() {
+        when:
+        new JpaFacetService<FacetZoneEntity>(database.entityManager, FacetZoneEntity, [property] as Set)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        property << ["unknown", "cities", "cities.country", "name.length"]
+    }
+}
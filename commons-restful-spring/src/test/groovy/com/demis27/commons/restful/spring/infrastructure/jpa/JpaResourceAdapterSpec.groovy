@@ -0,0 +1,52 @@
+package com.demis27.commons.restful.spring.infrastructure.jpa
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import org.springframework.data.domain.PageImpl
+import org.springframework.data.domain.Pageable
+import org.springframework.data.jpa.domain.Specification
+import spock.lang.Specification as Spec
+
+class JpaResourceAdapterSpec extends Spec {
+
+    JpaResourceRepository<Element, Long> repository = Mock()
+
+    def adapter = new JpaResourceAdapter<String, Element, Long>(repository, { Element entity -> entity.name.toUpperCase() } as EntityMapper<String, Element>) {}
+
+    def "should query the repository with a specification"() {
+        given:
+        def request = new APIResourcesRequest("elements", "/api/v1/elements", "elements=0-9", null, "name eq a or name eq b")
+
+        when:
+        def result = adapter.getAllResources(request)
+        def count = adapter.countResources(request)
+
+        then:
+        1 * repository.findAll(_ as Specification, _ as Pageable) >> new PageImpl<>([new Element(name: "a"), new Element(name: "b")])
+        1 * repository.count(_ as Specification) >> 2L
+        result == ["A", "B"]
+        count == 2L
+    }
+
+    def "should not query the repository when the filters are contradictory"() {
+        given:
+        def request = new APIResourcesRequest("elements", "/api/v1/elements", "elements=0-9", null, filters)
+
+        when:
+        def result = adapter.getAllResources(request)
+        def count = adapter.countResources(request)
+
+        then:
+        0 * repository._
+        result == []
+        count == 0L
+
+        where:
+        filters << ["age gt 20, age lt 10", "id eq 1, id eq 2"]
+    }
+
+    static class Element {
+        Long id
+        String name
+        Integer age
+    }
+}
@@ -0,0 +1,45 @@
+package com.demis27.commons.restful.spring.infrastructure.jpa
+
+import jakarta.persistence.EntityManager
+import org.hibernate.SessionFactory
+import org.hibernate.cfg.Configuration
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory
+
+/**
+ * An embedded H2 database with Hibernate, to test the adapters with real queries.
+ */
+class JpaTestDatabase implements Closeable {
+
+    final SessionFactory sessionFactory
+
+    final EntityManager entityManager
+
+    JpaTestDatabase(String name, Class<?>... entities) {
+        def configuration = new Configuration()
+        entities.each { configuration.addAnnotatedClass(it) }
+        configuration.setProperty("hibernate.connection.url", "jdbc:h2:mem:${name};DB_CLOSE_DELAY=-1")
+        configuration.setProperty("hibernate.connection.username", "sa")
+        configuration.setProperty("hibernate.hbm2ddl.auto", "create-drop")
+        configuration.setProperty("hibernate.show_sql", "false")
+        sessionFactory = configuration.buildSessionFactory()
+        entityManager = sessionFactory.createEntityManager()
+    }
+
+    def <R> R repository(Class<R> repositoryType) {
+        new JpaRepositoryFactory(entityManager).getRepository(repositoryType)
+    }
+
+    void persist(Object... entities) {
+        def transaction = entityManager.transaction
+        transaction.begin()
+        entities.each { entityManager.merge(it) }
+        transaction.commit()
+        entityManager.clear()
+    }
+
+    @Override
+    void close() {
+        entityManager.close()
+        sessionFactory.close()
+    }
+}
@@ -0,0 +1,106 @@
+package com.demis27.commons.restful.spring.infrastructure.jpa
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import jakarta.persistence.Entity
+import jakarta.persistence.Id
+import jakarta.persistence.ManyToOne
+import jakarta.persistence.Table
+import org.springframework.data.mapping.PropertyReferenceException
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+@Entity
+@Table(name = "warm_up_country")
+class WarmUpCountryEntity {
+    @Id
+    String code
+    String name
+}
+
+@Entity
+@Table(name = "warm_up_region")
+class WarmUpRegionEntity {
+    @Id
+    String code
+    String name
+    Integer population
+    @ManyToOne
+    WarmUpCountryEntity country
+}
+
+class ResourceWarmUpSpec extends Specification {
+
+    @AutoCleanup
+    def database = new JpaTestDatabase("warm-up", WarmUpCountryEntity, WarmUpRegionEntity)
+
+    def statistics = database.sessionFactory.statistics
+
+    def setup() {
+        statistics.statisticsEnabled = true
+        statistics.clear()
+    }
+
+    static ResourceWarmUp.WarmUpRequest warmUpRequest(Class<?> entityType, String range, String sort, String filter) {
+        new ResourceWarmUp.WarmUpRequest(entityType, new APIResourcesRequest("regions", "/api/v1/regions", range, sort, filter))
+    }
+
+    def "should warm up the requests without querying the database"() {
+        given:
+        def warmUp = new ResourceWarmUp(database.sessionFactory, [
+                warmUpRequest(WarmUpRegionEntity, "regions=0-9", "country.name,population:desc", "population gt 1000, code in NOR BRE or country.code eq FR"),
+                warmUpRequest(WarmUpRegionEntity, null, null, null),
+                warmUpRequest(WarmUpCountryEntity, "countries=20-29", "name", "name like Fr%"),
+        ], 5)
+
+        when:
+        def duration = warmUp.warmUp()
+
+        then:
+        !duration.negative
+        statistics.queryExecutionCount == 0
+        statistics.prepareStatementCount == 0
+    }
+
+    def "should warm up once all the singletons are created"() {
+        given:
+        def warmUp = new ResourceWarmUp(database.sessionFactory, [warmUpRequest(WarmUpRegionEntity, null, "name", "name eq Bretagne")], 1)
+
+        when:
+        warmUp.afterSingletonsInstantiated()
+
+        then:
+        noExceptionThrown()
+        statistics.queryExecutionCount == 0
+    }
+
+    def "should fail on an invalid request"() {
+        given:
+        def warmUp = new ResourceWarmUp(database.sessionFactory, [warmUpRequest(WarmUpRegionEntity, range, sort, filter)], 1)
+
+        when:
+        warmUp.warmUp()
+
+        then:
+        thrown(exception)
+
+        where:
+        range         | sort      | filter         || exception
+        null          | null      | "unknown eq 1" || IllegalArgumentException
+        null          | "unknown" | null           || PropertyReferenceException
+        "regions=9-0" | null      | null           || IllegalArgumentException
+    }
+
+    def "should reject invalid arguments"() {
+        when:
+        new ResourceWarmUp(database.sessionFactory, [], 0)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        when:
+        new ResourceWarmUp.WarmUpRequest(null, new APIResourcesRequest("regions", "/api/v1/regions", null, null, null))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -2,6 +2,8 @@ package com.demis27.commons.restful.spring.infrastructure.jpa
 
 
 import jakarta.persistence.criteria.*
+import jakarta.persistence.metamodel.EntityType
+import jakarta.persistence.metamodel.SingularAttribute
 import spock.lang.Specification
 
 class SpecificationServiceSpec extends Specification {
@@ -91,6 +93,73 @@ class SpecificationServiceSpec extends Specification {
         1 * criteriaBuilder.and(namePredicate, agePredicate)
     }
 
+    def "should combine filters with OR and NOT"() {
+        given:
+        String filters = "name eq John or not age gt 30"
+        def namePath = Mock(Path)
+        def agePath = Mock(Path)
+        root.get("name") >> namePath
+        root.get("age") >> agePath
+
+        def namePredicate = Mock(Predicate)
+        def agePredicate = Mock(Predicate)
+
+        def spec = service.fromFiltersString(filters)
+
+        when:
+        spec.get().toPredicate(root, criteriaQuery, criteriaBuilder)
+
+        then: "The negation is pushed into the comparison"
+        1 * criteriaBuilder.equal(namePath, "John") >> namePredicate
+        1 * criteriaBuilder.lessThanOrEqualTo(agePath, "30") >> agePredicate
+
+        and: "The predicates are combined with OR"
+        1 * criteriaBuilder.or(namePredicate, agePredicate)
+    }
+
+    def "should merge range bounds into a between"() {
+        given:
+        String filters = "age gte 18,age lte 65,age gt 10"
+        root.get("age") >> path
+        def model = Mock(EntityType)
+        def ageAttribute = Mock(SingularAttribute)
+        root.getModel() >> model
+        model.getAttribute("age") >> ageAttribute
+        ageAttribute.getJavaType() >> Integer
+        def spec = service.fromFiltersString(filters)
+
+        when:
+        spec.get().toPredicate(root, criteriaQuery, criteriaBuilder)
+
+        then:
+        1 * criteriaBuilder.between(path, "18", "65")
+        0 * criteriaBuilder.greaterThan(_, _)
+    }
+
+    def "should detect a contradiction"() {
+        given:
+        def service = new SpecificationService<MyEntity>(MyEntity)
+
+        when:
+        def expression = service.parseFiltersString("age gt 20,age lt 10")
+        def spec = service.fromExpression(expression)
+
+        then:
+        expression.isContradiction()
+
+        when:
+        spec.get().toPredicate(root, criteriaQuery, criteriaBuilder)
+
+        then:
+        1 * criteriaBuilder.disjunction()
+    }
+
+    def "should keep the comparisons of the properties of unknown type"() {
+        expect:
+        !service.parseFiltersString("age gt 20,age lt 10").isContradiction()
+        !new SpecificationService<MyEntity>(MyEntity).parseFiltersString("name eq John,name eq Jane").isContradiction()
+    }
+
     def "should handle property names with dots for nested objects"() {
         given:
         String filters = "address.city eq London"
@@ -141,5 +210,28 @@ class SpecificationServiceSpec extends Specification {
     }
 
     // Dummy entity for generic type
-    private static class MyEntity {}
+    private static class MyEntity {
+        Integer age
+    }
+
+    def "should not merge the range bounds of a string property"() {
+        given:
+        String filters = "zip lt 9,zip gt 10"
+        root.get("zip") >> path
+        def model = Mock(EntityType)
+        def zipAttribute = Mock(SingularAttribute)
+        root.getModel() >> model
+        model.getAttribute("zip") >> zipAttribute
+        zipAttribute.getJavaType() >> String
+
+        when:
+        def expression = service.parseFiltersString(filters)
+        service.fromExpression(expression).get().toPredicate(root, criteriaQuery, criteriaBuilder)
+
+        then: "the values are not compared as numbers"
+        !expression.isContradiction()
+        1 * criteriaBuilder.lessThan(path, "9")
+        1 * criteriaBuilder.greaterThan(path, "10")
+        0 * criteriaBuilder.disjunction()
+    }
 }
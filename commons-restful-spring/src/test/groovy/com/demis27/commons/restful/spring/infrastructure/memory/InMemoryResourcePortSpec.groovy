@@ -0,0 +1,177 @@
+package com.demis27.commons.restful.spring.infrastructure.memory
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import spock.lang.Specification
+
+import java.util.concurrent.ScheduledExecutorService
+
+class InMemoryResourcePortSpec extends Specification {
+
+    static record Region(String code, String name, Integer population, String country) {
+    }
+
+    static final List<Region> REGIONS = [
+            new Region("BRE", "Bretagne", 3400, "FR"),
+            new Region("NOR", "Normandie", 3300, "FR"),
+            new Region("IDF", "Ile-de-France", 12300, "FR"),
+            new Region("BAV", "Bayern", 13400, "DE"),
+            new Region("BER", "Berlin", 3800, "DE"),
+            new Region("COR", "Corse", null, "FR"),
+    ]
+
+    def port = new InMemoryResourcePort<Region>(Region, { REGIONS }, ["code", "population", "country"] as Set, ["name"] as Set)
+
+    static APIResourcesRequest request(String range, String sort, String filter) {
+        new APIResourcesRequest("regions", "/api/v1/regions", range, sort, filter)
+    }
+
+    def "should filter, sort and page the resources"() {
+        expect:
+        port.getAllResources(request(range, sort, filter))*.code() == codes
+        port.countResources(request(range, sort, filter)) == count
+
+        where:
+        range        | sort                   | filter                                  || codes                                       | count
+        null         | null                   | null                                    || ["BRE", "NOR", "IDF", "BAV", "BER", "COR"] | 6
+        "regions=2-3"| null                   | null                                    || ["IDF", "BAV"]                             | 6
+        null         | "code"                 | null                                    || ["BAV", "BER", "BRE", "COR", "IDF", "NOR"] | 6
+        "regions=0-2"| "code:desc"            | null                                    || ["NOR", "IDF", "COR"]                      | 6
+        null         | "population"           | null                                    || ["NOR", "BRE", "BER", "IDF", "BAV", "COR"] | 6
+        null         | "population:desc"      | null                                    || ["COR", "BAV", "IDF", "BER", "BRE", "NOR"] | 6
+        null         | null                   | "code eq IDF"                           || ["IDF"]                                    | 1
+        null         | null                   | "code in NOR BER XXX"                   || ["NOR", "BER"]                             | 2
+        null         | "population"           | "population gt 3400"                    || ["BER", "IDF", "BAV"]                      | 3
+        null         | "population"           | "population gte 3400"                   || ["BRE", "BER", "IDF", "BAV"]               | 4
+        null         | "population:desc"      | "population lt 12300"                   || ["BER", "BRE", "NOR"]                      | 3
+        null         | null                   | "population between 3300 3800"          || ["BRE", "NOR", "BER"]                      | 3
+        null         | "country,population"   | "population lte 13400"                  || ["BER", "BAV", "NOR", "BRE", "IDF"]        | 5
+        null         | "country:desc,name"    | "country eq FR, population gt 3300"     || ["BRE", "IDF"]                             | 2
+        null         | "name"                 | "name like B%"                          || ["BAV", "BER", "BRE"]                      | 3
+        null         | "code"                 | "country eq DE or population gt 12000"  || ["BAV", "BER", "IDF"]                      | 3
+        null         | null                   | "not country eq FR"                     || ["BAV", "BER"]                             | 2
+        "regions=0-1"| "population"           | "country eq FR"                         || ["NOR", "BRE"]                             | 4
+        "regions=3-5"| "code"                 | null                                    || ["COR", "IDF", "NOR"]                      | 6
+    }
+
+    def "should not scan the resources when the filters are contradictory"() {
+        expect:
+        port.getAllResources(request(null, null, "population gt 5000, population lt 1000")) == []
+        port.countResources(request(null, null, "population gt 5000, population lt 1000")) == 0L
+    }
+
+    def "should reject the sorts and the filters on a property that is not allowed: '#sort' '#filter'"() {
+        given:
+        def indexedOnly = new InMemoryResourcePort<Region>(Region, { REGIONS }, ["code"] as Set)
+
+        when:
+        indexedOnly.getAllResources(request(null, sort, filter))
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        sort   | filter
+        "name" | null
+        null   | "name eq Bretagne"
+        null   | "code eq BRE or not (country eq FR)"
+        null   | "population gt 5000, population lt 1000"
+    }
+
+    def "should reject the counts filtering on a property that is not allowed"() {
+        given:
+        def indexedOnly = new InMemoryResourcePort<Region>(Region, { REGIONS }, ["code"] as Set)
+
+        when:
+        indexedOnly.countResources(request(null, null, "code eq BRE, name eq Bretagne"))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "should swap the resources on refresh"() {
+        given:
+        def regions = [new Region("BRE", "Bretagne", 3400, "FR")]
+        def refreshable = new InMemoryResourcePort<Region>(Region, { regions }, ["code"] as Set)
+        def before = refreshable.getAllResources(request(null, "code", null))
+
+        when:
+        regions = [new Region("NOR", "Normandie", 3300, "FR"), new Region("BRE", "Bretagne", 3400, "FR")]
+        refreshable.refresh()
+
+        then:
+        before*.code() == ["BRE"]
+        refreshable.getAllResources(request(null, "code", null))*.code() == ["BRE", "NOR"]
+        refreshable.countResources(request(null, null, "code eq NOR")) == 1L
+    }
+
+    def "should keep the previous resources when the refresh fails"() {
+        given:
+        def fail = false
+        def refreshable = new InMemoryResourcePort<Region>(Region, { if (fail) throw new IllegalStateException("down"); REGIONS }, ["code"] as Set)
+
+        when:
+        fail = true
+        refreshable.refresh()
+
+        then:
+        thrown(IllegalStateException)
+        refreshable.countResources(request(null, null, null)) == 6L
+    }
+
+    def "should schedule the refresh"() {
+        given:
+        ScheduledExecutorService scheduler = Mock()
+
+        when:
+        port.scheduleRefresh(scheduler, java.time.Duration.ofMinutes(5))
+
+        then:
+        1 * scheduler.scheduleWithFixedDelay(_ as Runnable, 300000L, 300000L, java.util.concurrent.TimeUnit.MILLISECONDS)
+    }
+
+    def "should keep the scheduled refresh running after a failed refresh"() {
+        given:
+        ScheduledExecutorService scheduler = Mock()
+        Runnable task = null
+        def regions = REGIONS
+        def fail = false
+        def refreshable = new InMemoryResourcePort<Region>(Region, { if (fail) throw new IllegalStateException("down"); regions }, ["code"] as Set)
+
+        when:
+        refreshable.scheduleRefresh(scheduler, java.time.Duration.ofMinutes(5))
+        fail = true
+        task.run()
+
+        then:
+        1 * scheduler.scheduleWithFixedDelay(_ as Runnable, 300000L, 300000L, java.util.concurrent.TimeUnit.MILLISECONDS) >> { args -> task = args[0]; null }
+        noExceptionThrown()
+        refreshable.countResources(request(null, null, null)) == 6L
+
+        when:
+        fail = false
+        regions = [new Region("BRE", "Bretagne", 3400, "FR")]
+        task.run()
+
+        then:
+        refreshable.countResources(request(null, null, null)) == 1L
+    }
+
+    def "should reject an unknown or not comparable indexed property"() {
+        when:
+        new InMemoryResourcePort<Region>(Region, { REGIONS }, [property] as Set)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        property << ["unknown", "class"]
+    }
+
+    def "should reject an unknown allowed property"() {
+        when:
+        new InMemoryResourcePort<Region>(Region, { REGIONS }, ["code"] as Set, ["unknown"] as Set)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -1,8 +1,13 @@
 package com.demis27.commons.restful.spring.infrastructure.web
 
 import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import com.demis27.commons.restful.spring.model.Facet
+import com.demis27.commons.restful.spring.model.ResourceChanges
+import com.demis27.commons.restful.spring.service.ResourceOverloadedException
 import spock.lang.Specification
 
+import java.time.Duration
+import java.util.function.BiFunction
 import java.util.function.Function
 import java.util.function.ToLongFunction
 
@@ -46,4 +51,59 @@ class ResourceControllerSpec extends Specification {
         response.headers.get("Content-Range") == ["items 0-9/100"]
         response.body == ["item1", "item2"]
     }
+
+    def "getChanges should return the changes since the watermark"() {
+        given: "a resource controller"
+        def controller = new ResourceController<String>()
+
+        and: "a request"
+        def request = new APIResourcesRequest("items", "/api/v1/elements", null, null, null)
+
+        and: "a function that returns changes"
+        def getChangesFunction = { req, watermark -> new ResourceChanges<>(["item3"], ["1"], watermark + "-next", false) } as BiFunction
+
+        when: "getChanges is called"
+        def response = controller.getChanges(request, "w1", getChangesFunction)
+
+        then: "the response contains the changes"
+        response.statusCode.value() == 200
+        response.body == new ResourceChanges<>(["item3"], ["1"], "w1-next", false)
+    }
+
+    def "getFacets should return the facets of the requested properties"() {
+        given: "a resource controller"
+        def controller = new ResourceController<String>()
+
+        and: "a request"
+        def request = new APIResourcesRequest("items", "/api/v1/elements", null, null, "code gt 2")
+
+        and: "a function that returns facets"
+        def getFacetsFunction = Mock(BiFunction)
+
+        when: "getFacets is called"
+        def response = controller.getFacets(request, " country, ,type ", getFacetsFunction)
+
+        then: "the function is called with the properties"
+        1 * getFacetsFunction.apply(request, ["country", "type"]) >> [new Facet("country", [new Facet.FacetValue("FR", 2)])]
+        response.statusCode.value() == 200
+        response.body == [new Facet("country", [new Facet.FacetValue("FR", 2)])]
+    }
+
+    def "handleResourceOverloaded should answer 503 with a Retry-After header in seconds"() {
+        given: "a resource controller"
+        def controller = new ResourceController<String>()
+
+        when: "a call is rejected"
+        def response = controller.handleResourceOverloaded(new ResourceOverloadedException("regions", retryAfter))
+
+        then: "the client is told when to retry"
+        response.statusCode.value() == 503
+        response.headers.getFirst("Retry-After") == expected
+
+        where:
+        retryAfter              || expected
+        Duration.ofSeconds(2)   || "2"
+        Duration.ofMillis(1500) || "2"
+        Duration.ZERO           || "1"
+    }
 }
@@ -0,0 +1,24 @@
+package com.demis27.commons.restful.spring.model
+
+import spock.lang.Specification
+
+class APIResourcesRequestSpec extends Specification {
+
+    def "should normalize the request"() {
+        expect:
+        new APIResourcesRequest("regions", " /api/v1/regions ", range, sort, filter).normalized() == new APIResourcesRequest("regions", "/api/v1/regions", expectedRange, expectedSort, expectedFilter)
+
+        where:
+        range                 | sort     | filter          || expectedRange   | expectedSort | expectedFilter
+        null                  | null     | null            || null            | null         | null
+        "  "                  | ""       | " "             || null            | null         | null
+        "regions=0-9"         | "code"   | "code eq 4"     || "regions=0-9"   | "code"       | "code eq 4"
+        "Range: regions=0-9 " | " code " | " code eq 4 "   || "regions=0-9"   | "code"       | "code eq 4"
+    }
+
+    def "should copy the request with another range"() {
+        expect:
+        new APIResourcesRequest("regions", "/api/v1/regions", "regions=0-9", "code", "code eq 4").withRange("regions=10-19") ==
+                new APIResourcesRequest("regions", "/api/v1/regions", "regions=10-19", "code", "code eq 4")
+    }
+}
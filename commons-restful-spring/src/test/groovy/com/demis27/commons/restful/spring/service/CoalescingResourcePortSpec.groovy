@@ -0,0 +1,132 @@
+package com.demis27.commons.restful.spring.service
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+@Timeout(10)
+class CoalescingResourcePortSpec extends Specification {
+
+    static APIResourcesRequest request(String range, String filter) {
+        new APIResourcesRequest("regions", "/api/v1/regions", range, "code", filter)
+    }
+
+    def "should run identical concurrent requests once"() {
+        given:
+        def release = new CountDownLatch(1)
+        def pages = new AtomicInteger()
+        def counts = new AtomicInteger()
+        def delegate = new ResourcePort<String>() {
+            List<String> getAllResources(APIResourcesRequest request) {
+                pages.incrementAndGet()
+                release.await()
+                ["BRE", "NOR"]
+            }
+
+            Long countResources(APIResourcesRequest request) {
+                counts.incrementAndGet()
+                release.await()
+                2L
+            }
+        }
+        def port = new CoalescingResourcePort<String>(delegate)
+        def executor = Executors.newFixedThreadPool(12)
+
+        when:
+        def results = (0..<6).collect { index ->
+            executor.submit({ port.getAllResources(request(index % 2 == 0 ? "regions=0-9" : " Range: regions=0-9 ", "code eq 1")) } as Callable)
+        }
+        def totals = (0..<6).collect { index ->
+            executor.submit({ port.countResources(request("regions=${index * 10}-${index * 10 + 9}", "code eq 1")) } as Callable)
+        }
+        while (port.waiting() < 10) {
+            Thread.onSpinWait()
+        }
+        release.countDown()
+
+        then:
+        results*.get(5, TimeUnit.SECONDS) == [["BRE", "NOR"]] * 6
+        totals*.get(5, TimeUnit.SECONDS) == [2L] * 6
+        pages.get() == 1
+        counts.get() == 1
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def "should take a slot of the limiter only for the caller running the query"() {
+        given:
+        def release = new CountDownLatch(1)
+        def pages = new AtomicInteger()
+        def delegate = new ResourcePort<String>() {
+            List<String> getAllResources(APIResourcesRequest request) {
+                pages.incrementAndGet()
+                release.await()
+                ["BRE", "NOR"]
+            }
+
+            Long countResources(APIResourcesRequest request) {
+                2L
+            }
+        }
+        def limiter = new ResourceLimiter(new ConcurrencyLimitPolicy(1, 1, 1, Duration.ofSeconds(1), Duration.ZERO, 0, Duration.ofSeconds(1)))
+        def port = new CoalescingResourcePort<String>(delegate, limiter)
+        def executor = Executors.newFixedThreadPool(6)
+
+        when:
+        def results = (0..<6).collect {
+            executor.submit({ port.getAllResources(request("regions=0-9", "code eq 1")) } as Callable)
+        }
+        while (port.waiting() < 5) {
+            Thread.onSpinWait()
+        }
+        def stats = limiter.stats()["regions"]
+        release.countDown()
+
+        then:
+        results*.get(5, TimeUnit.SECONDS) == [["BRE", "NOR"]] * 6
+        pages.get() == 1
+        stats.inFlight() == 1
+        limiter.stats()["regions"].rejected() == 0L
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def "should not coalesce different requests"() {
+        given:
+        ResourcePort<String> delegate = Mock()
+        def port = new CoalescingResourcePort<String>(delegate)
+
+        when:
+        port.getAllResources(request("regions=0-9", "code eq 1"))
+        port.getAllResources(request("regions=10-19", "code eq 1"))
+        port.countResources(request("regions=0-9", "code eq 1"))
+        port.countResources(request("regions=0-9", "code eq 2"))
+
+        then:
+        2 * delegate.getAllResources(_) >> []
+        2 * delegate.countResources(_) >> 0L
+    }
+
+    def "should propagate the exception of the delegate"() {
+        given:
+        ResourcePort<String> delegate = Mock()
+        def port = new CoalescingResourcePort<String>(delegate)
+
+        when:
+        port.getAllResources(request("regions=0-9", "code eq 1"))
+
+        then:
+        1 * delegate.getAllResources(_) >> { throw new IllegalArgumentException("Invalid filter") }
+        def e = thrown(IllegalArgumentException)
+        e.message == "Invalid filter"
+    }
+}
@@ -0,0 +1,219 @@
+package com.demis27.commons.restful.spring.service
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+
+@Timeout(10)
+class ConcurrencyLimiterSpec extends Specification {
+
+    def clock = new ExpiringCacheSpec.MutableClock()
+
+    def executor = Executors.newCachedThreadPool()
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
+    static ConcurrencyLimitPolicy policy(int initialLimit, int minLimit, int maxLimit, Duration maxWait, int maxQueueSize) {
+        new ConcurrencyLimitPolicy(initialLimit, minLimit, maxLimit, Duration.ofMillis(100), maxWait, maxQueueSize, Duration.ofSeconds(2))
+    }
+
+    def callTaking(long latencyMillis) {
+        return {
+            clock.now = clock.now.plusMillis(latencyMillis)
+            "done"
+        }
+    }
+
+    def "should increase the limit additively and decrease it multiplicatively"() {
+        given:
+        def limiter = new ConcurrencyLimiter("regions", policy(2, 1, 3, Duration.ZERO, 0), clock)
+
+        when: "three fast calls"
+        3.times { limiter.execute(callTaking(50)) }
+
+        then:
+        limiter.stats().limit() == 3
+
+        when: "one more fast call"
+        limiter.execute(callTaking(50))
+
+        then: "the limit stays under the maximum"
+        limiter.stats().limit() == 3
+
+        when: "a slow call"
+        limiter.execute(callTaking(150))
+
+        then:
+        limiter.stats().limit() == 2
+
+        when: "many slow calls"
+        10.times { limiter.execute(callTaking(150)) }
+
+        then: "the limit stays over the minimum"
+        limiter.stats() == new LimiterStats("regions", 1, 0, 0, 15, 0)
+    }
+
+    def "should cut the limit once for a burst of slow calls"() {
+        given:
+        def limiter = new ConcurrencyLimiter("regions", policy(4, 1, 4, Duration.ZERO, 0), clock)
+        def started = new CountDownLatch(4)
+        def release = new CountDownLatch(1)
+        def calls = (1..4).collect { executor.submit({ limiter.execute { started.countDown(); release.await(); "slow" } } as Callable) }
+        started.await()
+
+        when: "the four calls started before the cut complete slowly"
+        clock.now = clock.now.plusMillis(150)
+        release.countDown()
+        calls*.get()
+
+        then:
+        limiter.stats() == new LimiterStats("regions", 3, 0, 0, 4, 0)
+
+        when: "a call started after the cut is slow too"
+        limiter.execute(callTaking(150))
+        limiter.execute(callTaking(150))
+
+        then:
+        limiter.stats().limit() == 2
+    }
+
+    def "should give the released slots to the waiting calls in their order of arrival"() {
+        given:
+        def limiter = new ConcurrencyLimiter("regions", policy(1, 1, 1, Duration.ofSeconds(5), 2), clock)
+        def order = Collections.synchronizedList([])
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def releaseFirst = new CountDownLatch(1)
+        def running = executor.submit({ limiter.execute { started.countDown(); release.await(); "slow" } } as Callable)
+        started.await()
+        def first = executor.submit({ limiter.execute { order << "first"; releaseFirst.await(); "first" } } as Callable)
+        while (limiter.stats().waiting() < 1) {
+            Thread.sleep(5)
+        }
+        def second = executor.submit({ limiter.execute { order << "second"; "second" } } as Callable)
+        while (limiter.stats().waiting() < 2) {
+            Thread.sleep(5)
+        }
+
+        when: "the running call completes"
+        release.countDown()
+        running.get()
+
+        then: "its slot is given to the first waiting call, a new call cannot take it"
+        limiter.stats() == new LimiterStats("regions", 1, 1, 1, 1, 0)
+
+        when:
+        releaseFirst.countDown()
+
+        then:
+        first.get() == "first"
+        second.get() == "second"
+        order == ["first", "second"]
+        limiter.stats() == new LimiterStats("regions", 1, 0, 0, 3, 0)
+    }
+
+    def "should not increase the limit on a failure"() {
+        given:
+        def limiter = new ConcurrencyLimiter("regions", policy(2, 1, 3, Duration.ZERO, 0), clock)
+
+        when:
+        limiter.execute { throw new IllegalArgumentException("bad filter") }
+
+        then:
+        thrown(IllegalArgumentException)
+        limiter.stats() == new LimiterStats("regions", 2, 0, 0, 1, 0)
+    }
+
+    def "should reject a call immediately when the limit is reached and waiting is disabled"() {
+        given:
+        def limiter = new ConcurrencyLimiter("regions", policy(1, 1, 1, Duration.ZERO, 0), clock)
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def running = executor.submit({ limiter.execute { started.countDown(); release.await(); "slow" } } as Callable)
+        started.await()
+
+        when:
+        limiter.execute(callTaking(10))
+
+        then:
+        def e = thrown(ResourceOverloadedException)
+        e.resourceName == "regions"
+        e.retryAfter == Duration.ofSeconds(2)
+        limiter.stats() == new LimiterStats("regions", 1, 1, 0, 0, 1)
+
+        cleanup:
+        release.countDown()
+        running.get()
+    }
+
+    def "should wait for a slot in a bounded queue"() {
+        given:
+        def limiter = new ConcurrencyLimiter("regions", policy(1, 1, 1, Duration.ofSeconds(5), 1), clock)
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def running = executor.submit({ limiter.execute { started.countDown(); release.await(); "slow" } } as Callable)
+        started.await()
+        def queued = executor.submit({ limiter.execute(callTaking(10)) } as Callable)
+        while (limiter.stats().waiting() == 0) {
+            Thread.sleep(5)
+        }
+
+        when: "the queue is full"
+        limiter.execute(callTaking(10))
+
+        then:
+        thrown(ResourceOverloadedException)
+
+        when: "the running call completes"
+        release.countDown()
+
+        then: "the queued call runs"
+        running.get() == "slow"
+        queued.get() == "done"
+        limiter.stats() == new LimiterStats("regions", 1, 0, 0, 2, 1)
+    }
+
+    def "should reject a call after the maximum wait"() {
+        given:
+        def limiter = new ConcurrencyLimiter("regions", policy(1, 1, 1, Duration.ofMillis(50), 10), clock)
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def running = executor.submit({ limiter.execute { started.countDown(); release.await(); "slow" } } as Callable)
+        started.await()
+
+        when:
+        limiter.execute(callTaking(10))
+
+        then:
+        thrown(ResourceOverloadedException)
+        limiter.stats().rejected() == 1
+        limiter.stats().waiting() == 0
+
+        cleanup:
+        release.countDown()
+        running.get()
+    }
+
+    def "should validate the policy"() {
+        when:
+        new ConcurrencyLimitPolicy(initialLimit, minLimit, maxLimit, latencyThreshold, maxWait, maxQueueSize, Duration.ofSeconds(1))
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        initialLimit | minLimit | maxLimit | latencyThreshold       | maxWait               | maxQueueSize
+        1            | 0        | 2        | Duration.ofMillis(100) | Duration.ZERO         | 0
+        1            | 2        | 1        | Duration.ofMillis(100) | Duration.ZERO         | 0
+        3            | 1        | 2        | Duration.ofMillis(100) | Duration.ZERO         | 0
+        1            | 1        | 2        | Duration.ZERO          | Duration.ZERO         | 0
+        1            | 1        | 2        | Duration.ofMillis(100) | Duration.ofMillis(-1) | 0
+        1            | 1        | 2        | Duration.ofMillis(100) | Duration.ZERO         | -1
+    }
+}
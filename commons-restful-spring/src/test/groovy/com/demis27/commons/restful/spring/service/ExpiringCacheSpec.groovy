@@ -0,0 +1,87 @@
+package com.demis27.commons.restful.spring.service
+
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneOffset
+
+class ExpiringCacheSpec extends Specification {
+
+    static class MutableClock extends Clock {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z")
+
+        ZoneOffset getZone() { ZoneOffset.UTC }
+
+        Clock withZone(java.time.ZoneId zone) { this }
+
+        Instant instant() { now }
+    }
+
+    def clock = new MutableClock()
+
+    def cache = new ExpiringCache<String, Integer>(2, Duration.ofSeconds(10), clock)
+
+    def "should return a value until it expires"() {
+        given:
+        cache.put("a", 1)
+
+        when:
+        clock.now = clock.now.plusSeconds(9)
+
+        then:
+        cache.get("a") == 1
+
+        when:
+        clock.now = clock.now.plusSeconds(1)
+
+        then:
+        cache.get("a") == null
+        cache.size() == 0
+    }
+
+    def "should evict the least recently used entry"() {
+        given:
+        cache.put("a", 1)
+        cache.put("b", 2)
+        cache.get("a")
+
+        when:
+        cache.put("c", 3)
+
+        then:
+        cache.get("a") == 1
+        cache.get("b") == null
+        cache.get("c") == 3
+    }
+
+    def "should add a value only if absent or expired"() {
+        expect:
+        cache.putIfAbsent("a", 1)
+        !cache.putIfAbsent("a", 2)
+        cache.get("a") == 1
+
+        when:
+        clock.now = clock.now.plusSeconds(10)
+
+        then:
+        cache.putIfAbsent("a", 3)
+        cache.remove("a") == 3
+        cache.remove("a") == null
+    }
+
+    def "should reject invalid limits"() {
+        when:
+        new ExpiringCache<String, Integer>(maxEntries, ttl, clock)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        maxEntries | ttl
+        0          | Duration.ofSeconds(1)
+        1          | Duration.ZERO
+        1          | Duration.ofSeconds(-1)
+    }
+}
@@ -0,0 +1,192 @@
+package com.demis27.commons.restful.spring.service
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneOffset
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+
+class PrefetchingResourcePortSpec extends Specification {
+
+    ResourcePort<String> delegate = Mock()
+
+    List<Runnable> tasks = []
+
+    Executor executor = { Runnable task -> tasks << task }
+
+    def clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC)
+
+    def port = new PrefetchingResourcePort<String>(delegate, new PrefetchPolicy(10, Duration.ofSeconds(30), 1), executor, clock)
+
+    static APIResourcesRequest request(String range) {
+        new APIResourcesRequest("regions", "/api/v1/regions", range, "code", "code gt 2")
+    }
+
+    static List<String> page(int start, int size) {
+        (start..<start + size).collect { "r" + it }
+    }
+
+    def "should serve the next page from the prefetch"() {
+        when:
+        port.countResources(request("regions=0-9"))
+        def first = port.getAllResources(request("regions=0-9"))
+
+        then:
+        1 * delegate.countResources(_) >> 25L
+        1 * delegate.getAllResources(request("regions=0-9")) >> page(0, 10)
+        first == page(0, 10)
+        tasks.size() == 1
+        port.runningPrefetches() == 1
+
+        when:
+        tasks.removeFirst().run()
+
+        then:
+        1 * delegate.getAllResources(request("regions=10-19")) >> page(10, 10)
+        port.runningPrefetches() == 0
+
+        when:
+        port.countResources(request("regions=10-19"))
+        def second = port.getAllResources(request(" Range: regions=10-19"))
+
+        then:
+        1 * delegate.countResources(_) >> 25L
+        0 * delegate.getAllResources(_)
+        second == page(10, 10)
+        tasks.size() == 1
+
+        when:
+        tasks.removeFirst().run()
+        def last = port.getAllResources(request("regions=20-24"))
+
+        then:
+        1 * delegate.getAllResources(request("regions=20-24")) >> page(20, 5)
+        0 * delegate._
+        last == page(20, 5)
+        tasks.isEmpty()
+    }
+
+    def "should not prefetch without a total, after the last page or after a partial page"() {
+        when:
+        port.getAllResources(request("regions=0-9"))
+
+        then:
+        1 * delegate.getAllResources(_) >> page(0, 10)
+        tasks.isEmpty()
+
+        when:
+        port.countResources(request(null))
+        port.getAllResources(request("regions=10-19"))
+        port.getAllResources(request(null))
+
+        then:
+        1 * delegate.countResources(_) >> 20L
+        1 * delegate.getAllResources(request("regions=10-19")) >> page(10, 10)
+        1 * delegate.getAllResources(request(null)) >> page(0, 7)
+        tasks.isEmpty()
+    }
+
+    def "should skip the prefetch when the budget is exhausted"() {
+        given:
+        delegate.countResources(_) >> 100L
+        delegate.getAllResources(_) >> page(0, 10)
+        port.countResources(request(null))
+
+        when:
+        port.getAllResources(request("regions=0-9"))
+        port.getAllResources(request("regions=20-29"))
+
+        then:
+        tasks.size() == 1
+        port.runningPrefetches() == 1
+    }
+
+    def "should query the delegate when the prefetch failed"() {
+        given:
+        delegate.countResources(_) >> 100L
+        port.countResources(request(null))
+
+        when:
+        port.getAllResources(request("regions=0-9"))
+        tasks.removeFirst().run()
+        def second = port.getAllResources(request("regions=10-19"))
+
+        then:
+        1 * delegate.getAllResources(request("regions=0-9")) >> page(0, 10)
+        1 * delegate.getAllResources(request("regions=10-19")) >> { throw new IllegalStateException("down") }
+        1 * delegate.getAllResources(request("regions=10-19")) >> page(10, 10)
+        second == page(10, 10)
+    }
+
+    def "should query the delegate when the prefetch expired"() {
+        given:
+        def mutableClock = new ExpiringCacheSpec.MutableClock()
+        def expiring = new PrefetchingResourcePort<String>(delegate, new PrefetchPolicy(10, Duration.ofSeconds(30), 1), executor, mutableClock)
+        delegate.countResources(_) >> 100L
+        expiring.countResources(request(null))
+
+        when:
+        expiring.getAllResources(request("regions=0-9"))
+        tasks.removeFirst().run()
+        mutableClock.now = mutableClock.now.plusSeconds(30)
+        def second = expiring.getAllResources(request("regions=10-19"))
+
+        then:
+        1 * delegate.getAllResources(request("regions=0-9")) >> page(0, 10)
+        2 * delegate.getAllResources(request("regions=10-19")) >> page(10, 10)
+        second == page(10, 10)
+    }
+
+    def "should query the delegate when the prefetch is still waiting for the executor"() {
+        given:
+        def waiting = new PrefetchingResourcePort<String>(delegate, new PrefetchPolicy(10, Duration.ofSeconds(30), 1, Duration.ofMillis(10)), executor, clock)
+        delegate.countResources(_) >> 100L
+        waiting.countResources(request(null))
+
+        when:
+        waiting.getAllResources(request("regions=0-9"))
+        def second = waiting.getAllResources(request("regions=10-19"))
+
+        then:
+        1 * delegate.getAllResources(request("regions=0-9")) >> page(0, 10)
+        1 * delegate.getAllResources(request("regions=10-19")) >> page(10, 10)
+        second == page(10, 10)
+        tasks.size() == 1
+    }
+
+    def "should release the budget when the executor rejects the prefetch"() {
+        given:
+        def rejecting = new PrefetchingResourcePort<String>(delegate, PrefetchPolicy.DEFAULT, { throw new RejectedExecutionException() } as Executor, clock)
+        delegate.countResources(_) >> 100L
+        delegate.getAllResources(_) >> page(0, 10)
+        rejecting.countResources(request(null))
+
+        when:
+        def result = rejecting.getAllResources(request("regions=0-9"))
+
+        then:
+        result == page(0, 10)
+        rejecting.runningPrefetches() == 0
+    }
+
+    def "should reject an invalid policy"() {
+        when:
+        new PrefetchPolicy(maxEntries, ttl, maxConcurrentPrefetches, maxWait)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        maxEntries | ttl                   | maxConcurrentPrefetches | maxWait
+        0          | Duration.ofSeconds(1) | 1                       | Duration.ZERO
+        1          | null                  | 1                       | Duration.ZERO
+        1          | Duration.ZERO         | 1                       | Duration.ZERO
+        1          | Duration.ofSeconds(1) | 0                       | Duration.ZERO
+        1          | Duration.ofSeconds(1) | 1                       | null
+        1          | Duration.ofSeconds(1) | 1                       | Duration.ofMillis(-1)
+    }
+}
@@ -0,0 +1,79 @@
+package com.demis27.commons.restful.spring.service
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+
+@Timeout(10)
+class ResourceLimiterSpec extends Specification {
+
+    def clock = new ExpiringCacheSpec.MutableClock()
+
+    def policy = new ConcurrencyLimitPolicy(1, 1, 2, Duration.ofMillis(100), Duration.ZERO, 0, Duration.ofSeconds(1))
+
+    static APIResourcesRequest request(String resourceName) {
+        new APIResourcesRequest(resourceName, "/api/v1/" + resourceName, null, null, null)
+    }
+
+    def "should limit each resource independently"() {
+        given:
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def delegate = new ResourcePort<String>() {
+            List<String> getAllResources(APIResourcesRequest request) {
+                if (request.resourceName() == "countries") {
+                    started.countDown()
+                    release.await()
+                }
+                [request.resourceName()]
+            }
+
+            Long countResources(APIResourcesRequest request) {
+                1L
+            }
+        }
+        def limiter = new ResourceLimiter(policy, clock)
+        def executor = Executors.newSingleThreadExecutor()
+        def slow = executor.submit({ limiter.execute(request("countries")) { delegate.getAllResources(request("countries")) } } as Callable)
+        started.await()
+
+        when: "the slow resource is at its limit"
+        limiter.execute(request("countries")) { delegate.countResources(request("countries")) }
+
+        then:
+        thrown(ResourceOverloadedException)
+
+        and: "the other resources are not affected"
+        limiter.execute(request("regions")) { delegate.getAllResources(request("regions")) } == ["regions"]
+        limiter.execute(request("regions")) { delegate.countResources(request("regions")) } == 1L
+
+        and: "the stats are live"
+        limiter.stats() == [
+                countries: new LimiterStats("countries", 1, 1, 0, 0, 1),
+                regions  : new LimiterStats("regions", 2, 0, 0, 2, 0),
+        ]
+
+        cleanup:
+        release.countDown()
+        slow.get()
+        executor.shutdown()
+    }
+
+    def "should propagate the exception of the call"() {
+        given:
+        def limiter = new ResourceLimiter(policy, clock)
+
+        when:
+        limiter.execute(request("regions")) { throw new IllegalStateException("database down") }
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "database down"
+        limiter.stats().regions.inFlight() == 0
+    }
+}
@@ -0,0 +1,119 @@
+package com.demis27.commons.restful.spring.service
+
+import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import com.demis27.commons.restful.spring.model.Facet
+import com.demis27.commons.restful.spring.model.ResourceChanges
+import spock.lang.Specification
+
+import java.time.Duration
+
+class ResourceServiceSpec extends Specification {
+
+    static class RegionService extends ResourceService<String> {
+        private final ResourceFacetsPort<String> facets
+
+        RegionService(ResourcePort<String> support, ResourceFacetsPort<String> facets, ResourceLimiter limiter) {
+            super(support, limiter)
+            this.facets = facets
+        }
+
+        @Override
+        protected ResourceFacetsPort<String> facetsPort() {
+            facets
+        }
+    }
+
+    def request = new APIResourcesRequest("regions", "/api/v1/regions", null, null, null)
+
+    def "should call the port without limiter"() {
+        given:
+        ResourcePort<String> port = Mock()
+        def service = new ResourceService<String>(port) {}
+
+        when:
+        def resources = service.getAllResources(request)
+        def count = service.countResources(request)
+
+        then:
+        1 * port.getAllResources(request) >> ["BRE"]
+        1 * port.countResources(request) >> 1L
+        resources == ["BRE"]
+        count == 1L
+    }
+
+    def "should run all the calls of the service within the limit of the resource"() {
+        given: "a coalescing port for the list and the count, and the adapter for the facets"
+        ResourceFacetsPort<String> adapter = Mock()
+        def limiter = new ResourceLimiter(new ConcurrencyLimitPolicy(1, 1, 2, Duration.ofSeconds(1), Duration.ZERO, 0, Duration.ofSeconds(1)))
+        def service = new RegionService(new CoalescingResourcePort<String>(adapter), adapter, limiter)
+
+        when:
+        def resources = service.getAllResources(request)
+        def count = service.countResources(request)
+        def facets = service.getFacets(request, ["country"])
+
+        then:
+        1 * adapter.getAllResources(request) >> ["BRE"]
+        1 * adapter.countResources(request) >> 1L
+        1 * adapter.getFacets(request, ["country"]) >> [new Facet("country", [])]
+        resources == ["BRE"]
+        count == 1L
+        facets == [new Facet("country", [])]
+        limiter.stats().regions.completed() == 3
+    }
+
+    def "should reject the facets when the port does not count them"() {
+        given:
+        def service = new ResourceService<String>(Mock(ResourcePort)) {}
+
+        when:
+        service.getFacets(request, ["country"])
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    def "should return the changes of the support tracking them"() {
+        given:
+        ResourceChangesPort<String> adapter = Mock()
+        def limiter = new ResourceLimiter(ConcurrencyLimitPolicy.DEFAULT)
+        def service = new ResourceService<String>(adapter, limiter) {}
+        def changes = new ResourceChanges<String>(["BRE"], [], "2", false)
+
+        when:
+        def result = service.getChangesSince(request, "1")
+
+        then:
+        1 * adapter.getChangesSince(request, "1") >> changes
+        result == changes
+        limiter.stats().regions.completed() == 1
+    }
+
+    def "should return the changes of the port given by the service"() {
+        given:
+        ResourceChangesPort<String> adapter = Mock()
+        def service = new ResourceService<String>(new CoalescingResourcePort<String>(adapter)) {
+            @Override
+            protected ResourceChangesPort<String> changesPort() {
+                adapter
+            }
+        }
+
+        when:
+        service.getChangesSince(request, null)
+
+        then:
+        1 * adapter.getChangesSince(request, null) >> new ResourceChanges<String>([], [], "0", false)
+    }
+
+    def "should reject the changes when the port does not track them"() {
+        given:
+        def service = new ResourceService<String>(new CoalescingResourcePort<String>(Mock(ResourceChangesPort))) {}
+
+        when:
+        service.getChangesSince(request, null)
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+}
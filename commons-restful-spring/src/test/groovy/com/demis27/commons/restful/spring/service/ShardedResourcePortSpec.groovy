@@ -0,0 +1,147 @@
+package com.demis27.commons.restful.spring.service
+
+import com.demis27.commons.restful.QueryParamCompiler
+import com.demis27.commons.restful.spring.infrastructure.jpa.EntityMapper
+import com.demis27.commons.restful.spring.infrastructure.jpa.JpaResourceAdapter
+import com.demis27.commons.restful.spring.infrastructure.jpa.JpaResourceRepository
+import com.demis27.commons.restful.spring.infrastructure.jpa.JpaTestDatabase
+import com.demis27.commons.restful.spring.model.APIResourcesRequest
+import jakarta.persistence.Entity
+import jakarta.persistence.Id
+import jakarta.persistence.Table
+import spock.lang.Shared
+import spock.lang.Specification
+
+@Entity
+@Table(name = "shard_region")
+class ShardRegionEntity {
+    @Id
+    String code
+    String country
+    Integer population
+}
+
+interface ShardRegionRepository extends JpaResourceRepository<ShardRegionEntity, String> {
+}
+
+class ShardedResourcePortSpec extends Specification {
+
+    static record Region(String code, String country, Integer population) {
+    }
+
+    static final Map<String, List<Region>> SHARDS = [
+            "france" : [new Region("BRE", "FR", 3400), new Region("NOR", "FR", 3300), new Region("IDF", "FR", 12300), new Region("OCC", "FR", 6000)],
+            "germany": [new Region("BAV", "DE", 13400), new Region("BER", "DE", 3800), new Region("SAX", "DE", 4000)],
+            "spain"  : [new Region("AND", "ES", 8500), new Region("MAD", "ES", 6800)],
+    ]
+
+    @Shared
+    List<JpaTestDatabase> databases
+
+    @Shared
+    ShardedResourcePort<Region> port
+
+    def setupSpec() {
+        databases = SHARDS.collect { name, regions ->
+            def database = new JpaTestDatabase("shard-" + name, ShardRegionEntity)
+            database.persist(*regions.collect { new ShardRegionEntity(code: it.code(), country: it.country(), population: it.population()) })
+            database
+        }
+        def adapters = databases.collect { database ->
+            new JpaResourceAdapter<Region, ShardRegionEntity, String>(database.repository(ShardRegionRepository),
+                    { ShardRegionEntity entity -> new Region(entity.code, entity.country, entity.population) } as EntityMapper<ShardRegionEntity, Region>) {}
+        }
+        port = new ShardedResourcePort<Region>(Region, adapters, { Runnable task -> Thread.startVirtualThread(task) })
+    }
+
+    def cleanupSpec() {
+        databases*.close()
+    }
+
+    static APIResourcesRequest request(String range, String sort, String filter) {
+        new APIResourcesRequest("regions", "/api/v1/regions", range, sort, filter)
+    }
+
+    def "should merge the shards in the order of the sorts"() {
+        expect:
+        port.getAllResources(request(range, sort, filter))*.code() == codes
+        port.countResources(request(range, sort, filter)) == count
+
+        where:
+        range         | sort               | filter              || codes                                      | count
+        "regions=0-3" | "code"             | null                || ["AND", "BAV", "BER", "BRE"]               | 9
+        "regions=4-7" | "code"             | null                || ["IDF", "MAD", "NOR", "OCC"]               | 9
+        "regions=8-11"| "code"             | null                || ["SAX"]                                    | 9
+        "regions=0-4" | "population:desc"  | null                || ["BAV", "IDF", "AND", "MAD", "OCC"]        | 9
+        "regions=2-3" | "country,code:desc"| "population gt 3500"|| ["BAV", "MAD"]                             | 7
+        null          | "population"       | "country in FR ES"  || ["NOR", "BRE", "OCC", "MAD", "AND", "IDF"] | 6
+        null          | null               | "code eq MAD"       || ["MAD"]                                    | 1
+        "regions=0-9" | "code"             | "code eq XXX"       || []                                         | 0
+    }
+
+    def "should merge the shards sorting the null values first with the comparator of the database"() {
+        given:
+        def nullable = [
+                "north": [new Region("NOR", "FR", null), new Region("BRE", "FR", 3400), new Region("IDF", "FR", 12300)],
+                "south": [new Region("COR", "FR", null), new Region("OCC", "FR", 6000), new Region("PAC", "FR", 5100)],
+        ].collect { name, regions ->
+            def database = new JpaTestDatabase("nullable-shard-" + name, ShardRegionEntity)
+            database.persist(*regions.collect { new ShardRegionEntity(code: it.code(), country: it.country(), population: it.population()) })
+            database
+        }
+        def adapters = nullable.collect { database ->
+            new JpaResourceAdapter<Region, ShardRegionEntity, String>(database.repository(ShardRegionRepository),
+                    { ShardRegionEntity entity -> new Region(entity.code, entity.country, entity.population) } as EntityMapper<ShardRegionEntity, Region>) {}
+        }
+        def sharded = new ShardedResourcePort<Region>(adapters, { Runnable task -> task.run() },
+                { sorts -> QueryParamCompiler.toComparator(Region, sorts, true) })
+
+        expect: "H2 sorts the null values first in ascending order"
+        adapters[0].getAllResources(request("regions=0-2", "population", null))*.code() == ["NOR", "BRE", "IDF"]
+        sharded.getAllResources(request("regions=0-3", "population", null))*.code() == ["NOR", "COR", "BRE", "PAC"]
+        sharded.getAllResources(request("regions=0-3", "population:desc", null))*.code() == ["IDF", "OCC", "PAC", "BRE"]
+        sharded.getAllResources(request("regions=4-5", "population:desc", null))*.code() == ["NOR", "COR"]
+
+        cleanup:
+        nullable*.close()
+    }
+
+    def "should fetch only the first b+1 resources of each shard"() {
+        given:
+        ResourcePort<String> first = Mock()
+        ResourcePort<String> second = Mock()
+        def sharded = new ShardedResourcePort<String>(String, [first, second], { Runnable task -> task.run() })
+
+        when:
+        def result = sharded.getAllResources(request("items=4-7", null, "name eq a"))
+
+        then:
+        1 * first.getAllResources(request("items=0-7", null, "name eq a")) >> ["a1", "a2", "a3"]
+        1 * second.getAllResources(request("items=0-7", null, "name eq a")) >> ["b1", "b2", "b3", "b4", "b5", "b6", "b7", "b8"]
+        result == ["b2", "b3", "b4", "b5"]
+    }
+
+    def "should propagate the exception of a shard"() {
+        given:
+        ResourcePort<String> failing = Mock()
+        ResourcePort<String> working = Mock()
+        def sharded = new ShardedResourcePort<String>(String, [working, failing], { Runnable task -> task.run() })
+
+        when:
+        sharded.countResources(request(null, null, null))
+
+        then:
+        1 * working.countResources(_) >> 3L
+        1 * failing.countResources(_) >> { throw new IllegalStateException("shard down") }
+        def e = thrown(IllegalStateException)
+        e.message == "shard down"
+    }
+
+    def "should reject an empty list of shards"() {
+        when:
+        new ShardedResourcePort<String>(String, [], { Runnable task -> task.run() })
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
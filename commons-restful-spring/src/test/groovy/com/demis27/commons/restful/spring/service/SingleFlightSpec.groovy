@@ -0,0 +1,107 @@
+package com.demis27.commons.restful.spring.service
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+@Timeout(10)
+class SingleFlightSpec extends Specification {
+
+    def singleFlight = new SingleFlight<String, Integer>()
+
+    def executor = Executors.newFixedThreadPool(8)
+
+    def cleanup() {
+        executor.shutdownNow()
+    }
+
+    /**
+     * Starts a call blocked until the latch is released, then the given number of identical calls,
+     * and returns once they all wait for the first one.
+     */
+    List<Future<Integer>> concurrentCalls(int followers, CountDownLatch release, AtomicInteger executions, Closure<Integer> result) {
+        def started = new CountDownLatch(1)
+        def leader = executor.submit({
+            singleFlight.execute("key", {
+                executions.incrementAndGet()
+                started.countDown()
+                release.await()
+                result()
+            })
+        } as Callable<Integer>)
+        started.await()
+        def others = (1..followers).collect {
+            executor.submit({ singleFlight.execute("key", { executions.incrementAndGet(); -1 }) } as Callable<Integer>)
+        }
+        while (singleFlight.waiting() < followers) {
+            Thread.onSpinWait()
+        }
+        [leader] + others
+    }
+
+    def "should share the result of a running call"() {
+        given:
+        def release = new CountDownLatch(1)
+        def executions = new AtomicInteger()
+        def calls = concurrentCalls(5, release, executions, { 42 })
+
+        when:
+        release.countDown()
+
+        then:
+        calls*.get(5, TimeUnit.SECONDS) == [42] * 6
+        executions.get() == 1
+        singleFlight.inFlight() == 0
+        singleFlight.waiting() == 0
+    }
+
+    def "should share the exception of a running call"() {
+        given:
+        def release = new CountDownLatch(1)
+        def executions = new AtomicInteger()
+        def calls = concurrentCalls(3, release, executions, { throw new IllegalStateException("down") })
+
+        when:
+        release.countDown()
+        def causes = calls.collect {
+            try {
+                it.get(5, TimeUnit.SECONDS)
+                null
+            } catch (java.util.concurrent.ExecutionException e) {
+                e.cause
+            }
+        }
+
+        then:
+        causes.every { it instanceof IllegalStateException && it.message == "down" }
+        executions.get() == 1
+        singleFlight.inFlight() == 0
+    }
+
+    def "should run again once the call is completed"() {
+        given:
+        def executions = new AtomicInteger()
+
+        when:
+        def first = singleFlight.execute("key", { executions.incrementAndGet() })
+        def second = singleFlight.execute("key", { executions.incrementAndGet() })
+        singleFlight.execute("failing", { throw new IllegalArgumentException() })
+
+        then:
+        thrown(IllegalArgumentException)
+        first == 1
+        second == 2
+        singleFlight.inFlight() == 0
+    }
+
+    def "should not coalesce different keys"() {
+        expect:
+        singleFlight.execute("a", { singleFlight.execute("b", { 1 }) + 1 }) == 2
+    }
+}
@@ -0,0 +1,168 @@
+package com.demis27.commons.restful;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Represents a boolean filter expression built from {@link QueryParamFilter} comparisons.
+ * Contrary to {@link QueryParamFilter#parse(String)}, which only understands a flat comma-separated list,
+ * an expression supports `and`, `or`, `not` and parentheses.
+ * For example:
+ * "(region eq EU or region eq NA), not status eq CLOSED, age between 18 65"
+ * The comma is an alias of `and` and binds tighter than `or`. Values containing spaces, commas,
+ * parentheses or keywords can be single-quoted, e.g. `name eq 'Doe, John'`.
+ * An expression can be simplified with {@link #optimize()}, then compiled to the flat form with {@link #toFilters()}.
+ */
+public sealed interface FilterExpression permits FilterExpression.Comparison, FilterExpression.And, FilterExpression.Or,
+        FilterExpression.Not, FilterExpression.Constant {
+
+    /**
+     * The expression that matches every element.
+     */
+    FilterExpression ALWAYS = new Constant(true);
+    /**
+     * The expression that matches no element, e.g. the result of a contradiction like `id eq 1, id eq 2`.
+     */
+    FilterExpression NEVER = new Constant(false);
+
+    /**
+     * A single comparison, e.g. `age gt 25`.
+     *
+     * @param filter The comparison.
+     */
+    record Comparison(QueryParamFilter filter) implements FilterExpression {
+    }
+
+    /**
+     * A conjunction of expressions.
+     *
+     * @param operands The expressions that must all match.
+     */
+    record And(List<FilterExpression> operands) implements FilterExpression {
+        public And {
+            operands = List.copyOf(operands);
+        }
+    }
+
+    /**
+     * A disjunction of expressions.
+     *
+     * @param operands The expressions of which at least one must match.
+     */
+    record Or(List<FilterExpression> operands) implements FilterExpression {
+        public Or {
+            operands = List.copyOf(operands);
+        }
+    }
+
+    /**
+     * A negation of an expression.
+     *
+     * @param operand The negated expression.
+     */
+    record Not(FilterExpression operand) implements FilterExpression {
+    }
+
+    /**
+     * A constant expression, see {@link #ALWAYS} and {@link #NEVER}.
+     *
+     * @param value `true` if the expression matches every element, `false` if it matches none.
+     */
+    record Constant(boolean value) implements FilterExpression {
+    }
+
+    /**
+     * Parses a filter string into a `FilterExpression`.
+     *
+     * @param filterString The filter string to parse, e.g. "name eq John or (age gt 25, age lt 40)".
+     * @return The parsed, not optimized, expression.
+     * @throws IllegalArgumentException if the filter string is null, blank, or invalid.
+     */
+    static FilterExpression parse(String filterString) {
+        return new FilterExpressionParser(filterString).parse();
+    }
+
+    /**
+     * Creates the conjunction of a flat list of filters, as returned by {@link QueryParamFilter#parse(String)}.
+     *
+     * @param filters The filters.
+     * @return The expression matching all the filters, {@link #ALWAYS} if the list is null or empty.
+     */
+    static FilterExpression of(List<QueryParamFilter> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return ALWAYS;
+        }
+        if (filters.size() == 1) {
+            return new Comparison(filters.getFirst());
+        }
+        return new And(filters.stream().<FilterExpression>map(Comparison::new).toList());
+    }
+
+    /**
+     * Returns an equivalent, simplified expression: nested groups are flattened, duplicates are removed,
+     * range bounds on the same property are merged (into `between` when both bounds are inclusive),
+     * repeated `eq` in a disjunction are folded into `in`, and contradictions are reduced to {@link #NEVER}.
+     * Without the property types, values are the same only if they are literally identical, and are never ordered,
+     * so the bounds on a property are merged only by {@link #optimize(Function)}.
+     *
+     * @return The optimized expression.
+     */
+    default FilterExpression optimize() {
+        return optimize(property -> null);
+    }
+
+    /**
+     * Returns an equivalent, simplified expression, see {@link #optimize()}, comparing the values of the numeric
+     * properties as numbers, e.g. `age gt 10, age gt 20` becomes `age gt 20`, and `id eq 1 or id eq 01` becomes `id eq 1`.
+     * The values of the other properties are the same only if they are literally identical, and are never ordered.
+     *
+     * @param propertyTypes The type of a property, null if it is unknown.
+     * @return The optimized expression.
+     */
+    default FilterExpression optimize(Function<String, Class<?>> propertyTypes) {
+        return FilterExpressionOptimizer.optimize(this, propertyTypes);
+    }
+
+    /**
+     * @return `true` if this expression never matches, so it is useless to run a query.
+     */
+    default boolean isContradiction() {
+        return NEVER.equals(this);
+    }
+
+    /**
+     * @return `true` if this expression always matches, so it can be omitted.
+     */
+    default boolean isTautology() {
+        return ALWAYS.equals(this);
+    }
+
+    /**
+     * @return `true` if this expression can be represented by a flat list of filters, see {@link #toFilters()}.
+     */
+    default boolean isFlat() {
+        return switch (this) {
+            case Comparison ignored -> true;
+            case And and -> and.operands().stream().allMatch(Comparison.class::isInstance);
+            case Constant constant -> constant.value();
+            default -> false;
+        };
+    }
+
+    /**
+     * Compiles this expression to the flat form, a list of filters that must all match.
+     *
+     * @return The list of filters, empty for {@link #ALWAYS}.
+     * @throws IllegalStateException if the expression is not flat, see {@link #isFlat()}.
+     */
+    default List<QueryParamFilter> toFilters() {
+        if (!isFlat()) {
+            throw new IllegalStateException("The filter expression '" + this + "' cannot be represented as a flat list of filters");
+        }
+        return switch (this) {
+            case Comparison comparison -> List.of(comparison.filter());
+            case And and -> and.operands().stream().map(operand -> ((Comparison) operand).filter()).toList();
+            default -> List.of();
+        };
+    }
+}
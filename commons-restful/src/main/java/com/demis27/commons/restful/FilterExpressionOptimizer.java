@@ -0,0 +1,416 @@
+package com.demis27.commons.restful;
+
+import com.demis27.commons.restful.QueryParamFilter.FilterOperator;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Simplifies a {@link FilterExpression}, see {@link FilterExpression#optimize(Function)}.
+ * When the type of the property is known, the values are converted to it before they are compared, and only the
+ * numbers and the dates are ordered. The texts, and the values of a property of unknown type, are the same only if
+ * they are literally identical, and are never ordered: the database may compare them differently, e.g. with a
+ * case-insensitive collation. When two values cannot be compared for sure, e.g. `A` and `a`, the comparisons on
+ * the property are kept as is, instead of being reduced to a contradiction.
+ */
+final class FilterExpressionOptimizer {
+
+    private record Bound(String value, boolean inclusive) {
+    }
+
+    /**
+     * Thrown when two values cannot be ordered, to abort the merge of the comparisons on a property.
+     */
+    private static final class IncomparableValuesException extends RuntimeException {
+        private IncomparableValuesException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final Function<String, Class<?>> propertyTypes;
+
+    private FilterExpressionOptimizer(Function<String, Class<?>> propertyTypes) {
+        this.propertyTypes = propertyTypes;
+    }
+
+    static FilterExpression optimize(FilterExpression expression, Function<String, Class<?>> propertyTypes) {
+        return new FilterExpressionOptimizer(propertyTypes).optimize(expression);
+    }
+
+    private FilterExpression optimize(FilterExpression expression) {
+        return switch (expression) {
+            case FilterExpression.Constant constant -> constant;
+            case FilterExpression.Comparison comparison -> optimizeComparison(comparison.filter());
+            case FilterExpression.Not not -> negate(optimize(not.operand()));
+            case FilterExpression.And and -> optimizeAnd(and.operands());
+            case FilterExpression.Or or -> optimizeOr(or.operands());
+        };
+    }
+
+    private FilterExpression optimizeComparison(QueryParamFilter filter) {
+        return switch (filter.operator()) {
+            case IN -> comparison(equalsOrIn(filter.property(), distinct(filter.property(), filter.values())));
+            case BETWEEN -> {
+                try {
+                    int compare = compare(filter.property(), filter.values().get(0), filter.values().get(1));
+                    if (compare > 0) {
+                        yield FilterExpression.NEVER;
+                    }
+                    yield compare == 0 ? comparison(filter(filter.property(), FilterOperator.EQUALS, filter.values().getFirst())) : comparison(filter);
+                } catch (IncomparableValuesException e) {
+                    yield comparison(filter);
+                }
+            }
+            default -> comparison(filter);
+        };
+    }
+
+    private static FilterExpression negate(FilterExpression expression) {
+        return switch (expression) {
+            case FilterExpression.Constant constant -> constant.value() ? FilterExpression.NEVER : FilterExpression.ALWAYS;
+            case FilterExpression.Not not -> not.operand();
+            case FilterExpression.Comparison comparison -> {
+                QueryParamFilter filter = comparison.filter();
+                FilterOperator negated = switch (filter.operator()) {
+                    case EQUALS -> FilterOperator.NOT_EQUALS;
+                    case NOT_EQUALS -> FilterOperator.EQUALS;
+                    case GREATER -> FilterOperator.LESS_OR_EQUALS;
+                    case GREATER_OR_EQUALS -> FilterOperator.LESS;
+                    case LESS -> FilterOperator.GREATER_OR_EQUALS;
+                    case LESS_OR_EQUALS -> FilterOperator.GREATER;
+                    default -> null;
+                };
+                yield negated == null ? new FilterExpression.Not(comparison) : comparison(new QueryParamFilter(filter.property(), negated, filter.values()));
+            }
+            default -> new FilterExpression.Not(expression);
+        };
+    }
+
+    private FilterExpression optimizeAnd(List<FilterExpression> operands) {
+        LinkedHashSet<FilterExpression> flattened = new LinkedHashSet<>();
+        for (FilterExpression operand : operands) {
+            FilterExpression optimized = optimize(operand);
+            if (optimized instanceof FilterExpression.And and) {
+                flattened.addAll(and.operands());
+            } else {
+                flattened.add(optimized);
+            }
+        }
+        if (flattened.contains(FilterExpression.NEVER)) {
+            return FilterExpression.NEVER;
+        }
+        flattened.remove(FilterExpression.ALWAYS);
+
+        List<FilterExpression> merged = new ArrayList<>();
+        for (Object item : groupByProperty(flattened)) {
+            if (item instanceof FilterExpression expression) {
+                merged.add(expression);
+            } else {
+                List<QueryParamFilter> filters = mergeConjunction(castFilters(item));
+                if (filters.isEmpty()) {
+                    return FilterExpression.NEVER;
+                }
+                filters.forEach(filter -> merged.add(comparison(filter)));
+            }
+        }
+        return combine(merged, FilterExpression.And::new, FilterExpression.ALWAYS);
+    }
+
+    private FilterExpression optimizeOr(List<FilterExpression> operands) {
+        LinkedHashSet<FilterExpression> flattened = new LinkedHashSet<>();
+        for (FilterExpression operand : operands) {
+            FilterExpression optimized = optimize(operand);
+            if (optimized instanceof FilterExpression.Or or) {
+                flattened.addAll(or.operands());
+            } else {
+                flattened.add(optimized);
+            }
+        }
+        if (flattened.contains(FilterExpression.ALWAYS)) {
+            return FilterExpression.ALWAYS;
+        }
+        flattened.remove(FilterExpression.NEVER);
+
+        // Only the equalities are grouped: `id eq 1 or id eq 2 or id in 3 4` becomes `id in 1 2 3 4`
+        List<FilterExpression> equalities = new ArrayList<>();
+        List<FilterExpression> others = new ArrayList<>();
+        List<FilterExpression> ordered = new ArrayList<>();
+        for (FilterExpression expression : flattened) {
+            if (expression instanceof FilterExpression.Comparison comparison
+                    && (comparison.filter().operator() == FilterOperator.EQUALS || comparison.filter().operator() == FilterOperator.IN)) {
+                equalities.add(expression);
+            } else {
+                others.add(expression);
+            }
+        }
+        for (Object item : groupByProperty(equalities)) {
+            List<QueryParamFilter> filters = castFilters(item);
+            List<String> values = distinct(filters.getFirst().property(), filters.stream().flatMap(filter -> filter.values().stream()).toList());
+            ordered.add(comparison(equalsOrIn(filters.getFirst().property(), values)));
+        }
+        ordered.addAll(others);
+        return combine(ordered, FilterExpression.Or::new, FilterExpression.NEVER);
+    }
+
+    /**
+     * Groups the comparisons by property, keeping the position of the first comparison of each property.
+     *
+     * @return A list of the non-comparison expressions and of the lists of filters on the same property.
+     */
+    private static List<Object> groupByProperty(Iterable<FilterExpression> expressions) {
+        Map<String, List<QueryParamFilter>> byProperty = new LinkedHashMap<>();
+        List<Object> layout = new ArrayList<>();
+        for (FilterExpression expression : expressions) {
+            if (expression instanceof FilterExpression.Comparison comparison) {
+                List<QueryParamFilter> filters = byProperty.get(comparison.filter().property());
+                if (filters == null) {
+                    filters = new ArrayList<>();
+                    byProperty.put(comparison.filter().property(), filters);
+                    layout.add(filters);
+                }
+                filters.add(comparison.filter());
+            } else {
+                layout.add(expression);
+            }
+        }
+        return layout;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<QueryParamFilter> castFilters(Object item) {
+        return (List<QueryParamFilter>) item;
+    }
+
+    /**
+     * Merges the filters on the same property that must all match.
+     *
+     * @return The merged filters, empty if they cannot match together.
+     */
+    private List<QueryParamFilter> mergeConjunction(List<QueryParamFilter> filters) {
+        if (filters.size() == 1) {
+            return filters;
+        }
+        try {
+            return mergeComparableConjunction(filters);
+        } catch (IncomparableValuesException e) {
+            return filters;
+        }
+    }
+
+    private List<QueryParamFilter> mergeComparableConjunction(List<QueryParamFilter> filters) {
+        String property = filters.getFirst().property();
+        List<String> allowed = null;
+        Bound lower = null;
+        Bound upper = null;
+        List<String> excluded = new ArrayList<>();
+        List<QueryParamFilter> others = new ArrayList<>();
+        for (QueryParamFilter filter : filters) {
+            String value = filter.values().getFirst();
+            switch (filter.operator()) {
+                case EQUALS, IN -> allowed = allowed == null ? distinct(property, filter.values()) : intersect(property, allowed, filter.values());
+                case GREATER -> lower = tighterLower(property, lower, new Bound(value, false));
+                case GREATER_OR_EQUALS -> lower = tighterLower(property, lower, new Bound(value, true));
+                case LESS -> upper = tighterUpper(property, upper, new Bound(value, false));
+                case LESS_OR_EQUALS -> upper = tighterUpper(property, upper, new Bound(value, true));
+                case BETWEEN -> {
+                    lower = tighterLower(property, lower, new Bound(value, true));
+                    upper = tighterUpper(property, upper, new Bound(filter.values().get(1), true));
+                }
+                case NOT_EQUALS -> excluded.add(value);
+                case LIKE -> others.add(filter);
+            }
+        }
+
+        List<QueryParamFilter> merged = new ArrayList<>();
+        if (allowed == null && lower != null && upper != null) {
+            int compare = compare(property, lower.value(), upper.value());
+            if (compare > 0 || (compare == 0 && !(lower.inclusive() && upper.inclusive()))) {
+                return List.of();
+            }
+            if (compare == 0) {
+                allowed = List.of(lower.value());
+            }
+        }
+        if (allowed != null) {
+            List<String> values = new ArrayList<>();
+            for (String value : allowed) {
+                if (isAbove(property, value, lower) && isBelow(property, value, upper) && excluded.stream().noneMatch(excludedValue -> isSame(property, value, excludedValue))) {
+                    values.add(value);
+                }
+            }
+            if (values.isEmpty()) {
+                return List.of();
+            }
+            merged.add(equalsOrIn(property, values));
+        } else {
+            if (lower != null && upper != null && lower.inclusive() && upper.inclusive()) {
+                merged.add(new QueryParamFilter(property, FilterOperator.BETWEEN, List.of(lower.value(), upper.value())));
+            } else {
+                if (lower != null) {
+                    merged.add(filter(property, lower.inclusive() ? FilterOperator.GREATER_OR_EQUALS : FilterOperator.GREATER, lower.value()));
+                }
+                if (upper != null) {
+                    merged.add(filter(property, upper.inclusive() ? FilterOperator.LESS_OR_EQUALS : FilterOperator.LESS, upper.value()));
+                }
+            }
+            for (String value : distinct(property, excluded)) {
+                if (isAbove(property, value, lower) && isBelow(property, value, upper)) {
+                    merged.add(filter(property, FilterOperator.NOT_EQUALS, value));
+                }
+            }
+        }
+        others.stream().distinct().forEach(merged::add);
+        return merged;
+    }
+
+    private Bound tighterLower(String property, Bound current, Bound candidate) {
+        if (current == null) {
+            return candidate;
+        }
+        int compare = compare(property, candidate.value(), current.value());
+        return compare > 0 || (compare == 0 && !candidate.inclusive()) ? candidate : current;
+    }
+
+    private Bound tighterUpper(String property, Bound current, Bound candidate) {
+        if (current == null) {
+            return candidate;
+        }
+        int compare = compare(property, candidate.value(), current.value());
+        return compare < 0 || (compare == 0 && !candidate.inclusive()) ? candidate : current;
+    }
+
+    private boolean isAbove(String property, String value, Bound lower) {
+        if (lower == null) {
+            return true;
+        }
+        int compare = compare(property, value, lower.value());
+        return compare > 0 || (compare == 0 && lower.inclusive());
+    }
+
+    private boolean isBelow(String property, String value, Bound upper) {
+        if (upper == null) {
+            return true;
+        }
+        int compare = compare(property, value, upper.value());
+        return compare < 0 || (compare == 0 && upper.inclusive());
+    }
+
+    private List<String> intersect(String property, List<String> values, List<String> others) {
+        return values.stream().filter(value -> others.stream().anyMatch(other -> isSame(property, value, other))).toList();
+    }
+
+    /**
+     * Removes the duplicates, only when they are the same for sure, so a value is never lost.
+     */
+    private List<String> distinct(String property, List<String> values) {
+        List<String> distinct = new ArrayList<>();
+        for (String value : values) {
+            if (distinct.stream().noneMatch(existing -> isSame(property, existing, value, false))) {
+                distinct.add(value);
+            }
+        }
+        return distinct;
+    }
+
+    private boolean isSame(String property, String first, String second) {
+        return isSame(property, first, second, true);
+    }
+
+    /**
+     * @param strict `true` to throw when the values may be the same or not depending on the database,
+     *               `false` to consider them different.
+     * @throws IncomparableValuesException if the values cannot be compared for sure, in strict mode.
+     */
+    private boolean isSame(String property, String first, String second, boolean strict) {
+        if (first.equals(second)) {
+            return true;
+        }
+        Comparable<Object> firstValue = typed(property, first);
+        Comparable<Object> secondValue = typed(property, second);
+        if (firstValue == null || secondValue == null) {
+            // e.g. `A` and `a`, the same for a case-insensitive collation
+            if (strict) {
+                throw new IncomparableValuesException();
+            }
+            return false;
+        }
+        return firstValue.compareTo(secondValue) == 0;
+    }
+
+    /**
+     * Orders two values of a number or date property.
+     *
+     * @throws IncomparableValuesException if the values are different and cannot be ordered for sure.
+     */
+    private int compare(String property, String first, String second) {
+        if (first.equals(second)) {
+            return 0;
+        }
+        Class<?> type = propertyTypes.apply(property);
+        if (type == null || !(Number.class.isAssignableFrom(QueryParamValues.wrap(type)) || Temporal.class.isAssignableFrom(type))) {
+            throw new IncomparableValuesException();
+        }
+        Comparable<Object> firstValue = typed(property, first);
+        Comparable<Object> secondValue = typed(property, second);
+        if (firstValue == null || secondValue == null) {
+            throw new IncomparableValuesException();
+        }
+        return firstValue.compareTo(secondValue);
+    }
+
+    /**
+     * Converts a value to the type of the property, when the database compares the values of this type like Java.
+     * Texts are compared with the collation of the database, e.g. case-insensitive, so they are never converted.
+     *
+     * @return The typed value, null if the type is unknown or textual, or the value is invalid.
+     */
+    @SuppressWarnings("unchecked")
+    private Comparable<Object> typed(String property, String value) {
+        Class<?> type = propertyTypes.apply(property);
+        if (type == null) {
+            return null;
+        }
+        Class<?> wrapped = QueryParamValues.wrap(type);
+        if (!Comparable.class.isAssignableFrom(wrapped) || CharSequence.class.isAssignableFrom(wrapped) || wrapped == Character.class) {
+            return null;
+        }
+        try {
+            Object typed = QueryParamValues.convert(value, wrapped);
+            // The same instant in different offsets is the same value for the database
+            if (typed instanceof OffsetDateTime dateTime) {
+                typed = dateTime.toInstant();
+            } else if (typed instanceof ZonedDateTime dateTime) {
+                typed = dateTime.toInstant();
+            }
+            return (Comparable<Object>) typed;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static QueryParamFilter equalsOrIn(String property, List<String> values) {
+        return values.size() == 1 ? filter(property, FilterOperator.EQUALS, values.getFirst()) : new QueryParamFilter(property, FilterOperator.IN, List.copyOf(values));
+    }
+
+    private static QueryParamFilter filter(String property, FilterOperator operator, String value) {
+        return new QueryParamFilter(property, operator, List.of(value));
+    }
+
+    private static FilterExpression comparison(QueryParamFilter filter) {
+        return new FilterExpression.Comparison(filter);
+    }
+
+    private static FilterExpression combine(List<FilterExpression> operands, Function<List<FilterExpression>, FilterExpression> constructor, FilterExpression identity) {
+        if (operands.isEmpty()) {
+            return identity;
+        }
+        return operands.size() == 1 ? operands.getFirst() : constructor.apply(operands);
+    }
+}
@@ -0,0 +1,195 @@
+package com.demis27.commons.restful;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A recursive descent parser for {@link FilterExpression}, with the grammar:
+ * expression  := disjunction
+ * disjunction := conjunction ( 'or' conjunction )*
+ * conjunction := unary ( ( ',' | 'and' ) unary )*
+ * unary       := 'not' unary | '(' disjunction ')' | comparison
+ * comparison  := property operator value+
+ * Keywords are case-insensitive, operators are the ones of {@link QueryParamFilter.FilterOperator#parse(String)}.
+ */
+final class FilterExpressionParser {
+
+    private enum TokenType {
+        WORD, QUOTED, COMMA, LEFT_PARENTHESIS, RIGHT_PARENTHESIS, END
+    }
+
+    private record Token(TokenType type, String text, int position) {
+
+        boolean isKeyword(String keyword) {
+            return type == TokenType.WORD && text.equalsIgnoreCase(keyword);
+        }
+
+        boolean isValue() {
+            return type == TokenType.QUOTED || (type == TokenType.WORD && !isKeyword("and") && !isKeyword("or"));
+        }
+    }
+
+    private final String input;
+
+    private final List<Token> tokens;
+
+    private int current;
+
+    FilterExpressionParser(String input) {
+        if (input == null || input.isBlank()) {
+            throw new IllegalArgumentException("Filter string cannot be null or blank.");
+        }
+        this.input = input;
+        this.tokens = tokenize(input);
+    }
+
+    FilterExpression parse() {
+        FilterExpression expression = parseDisjunction();
+        if (peek().type() != TokenType.END) {
+            throw error("Unexpected token '" + peek().text() + "'", peek());
+        }
+        return expression;
+    }
+
+    private FilterExpression parseDisjunction() {
+        List<FilterExpression> operands = new ArrayList<>();
+        operands.add(parseConjunction());
+        while (peek().isKeyword("or")) {
+            next();
+            operands.add(parseConjunction());
+        }
+        return operands.size() == 1 ? operands.getFirst() : new FilterExpression.Or(operands);
+    }
+
+    private FilterExpression parseConjunction() {
+        List<FilterExpression> operands = new ArrayList<>();
+        operands.add(parseUnary());
+        while (peek().type() == TokenType.COMMA || peek().isKeyword("and")) {
+            next();
+            operands.add(parseUnary());
+        }
+        return operands.size() == 1 ? operands.getFirst() : new FilterExpression.And(operands);
+    }
+
+    private FilterExpression parseUnary() {
+        Token token = peek();
+        if (token.isKeyword("not")) {
+            next();
+            return new FilterExpression.Not(parseUnary());
+        }
+        if (token.type() == TokenType.LEFT_PARENTHESIS) {
+            next();
+            FilterExpression expression = parseDisjunction();
+            expect(TokenType.RIGHT_PARENTHESIS, "')'");
+            return expression;
+        }
+        return parseComparison();
+    }
+
+    private FilterExpression parseComparison() {
+        String property = expect(TokenType.WORD, "a property").text();
+        Token operatorToken = expect(TokenType.WORD, "an operator");
+        QueryParamFilter.FilterOperator operator;
+        try {
+            operator = QueryParamFilter.FilterOperator.parse(operatorToken.text());
+        } catch (IllegalArgumentException e) {
+            throw error("Unsupported operator '" + operatorToken.text() + "'", operatorToken);
+        }
+
+        List<String> values = new ArrayList<>();
+        switch (operator) {
+            case IN -> {
+                values.add(expectValue().text());
+                while (peek().isValue()) {
+                    values.add(next().text());
+                }
+            }
+            case BETWEEN -> {
+                values.add(expectValue().text());
+                values.add(expectValue().text());
+            }
+            default -> values.add(expectValue().text());
+        }
+        return new FilterExpression.Comparison(new QueryParamFilter(property, operator, List.copyOf(values)));
+    }
+
+    private Token expectValue() {
+        Token token = peek();
+        if (token.type() != TokenType.WORD && token.type() != TokenType.QUOTED) {
+            throw error("Expected a value", token);
+        }
+        return next();
+    }
+
+    private Token expect(TokenType type, String description) {
+        Token token = peek();
+        if (token.type() != type) {
+            throw error("Expected " + description, token);
+        }
+        return next();
+    }
+
+    private Token peek() {
+        return tokens.get(current);
+    }
+
+    private Token next() {
+        return tokens.get(current++);
+    }
+
+    private IllegalArgumentException error(String message, Token token) {
+        return new IllegalArgumentException("%s at position %d in filter '%s'".formatted(message, token.position(), input));
+    }
+
+    private static List<Token> tokenize(String input) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < input.length()) {
+            char c = input.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == ',') {
+                tokens.add(new Token(TokenType.COMMA, ",", i++));
+            } else if (c == '(') {
+                tokens.add(new Token(TokenType.LEFT_PARENTHESIS, "(", i++));
+            } else if (c == ')') {
+                tokens.add(new Token(TokenType.RIGHT_PARENTHESIS, ")", i++));
+            } else if (c == '\'') {
+                i = readQuoted(input, i, tokens);
+            } else {
+                // Only a leading apostrophe opens a quoted value, the one inside a word, e.g. O'Neil, is a literal
+                int start = i;
+                while (i < input.length() && !isDelimiter(input.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.WORD, input.substring(start, i), start));
+            }
+        }
+        tokens.add(new Token(TokenType.END, "end of filter", input.length()));
+        return tokens;
+    }
+
+    private static int readQuoted(String input, int start, List<Token> tokens) {
+        StringBuilder value = new StringBuilder();
+        int i = start + 1;
+        while (i < input.length()) {
+            char c = input.charAt(i);
+            if (c == '\'') {
+                if (i + 1 < input.length() && input.charAt(i + 1) == '\'') {
+                    value.append('\'');
+                    i += 2;
+                    continue;
+                }
+                tokens.add(new Token(TokenType.QUOTED, value.toString(), start));
+                return i + 1;
+            }
+            value.append(c);
+            i++;
+        }
+        throw new IllegalArgumentException("Unterminated quoted value at position %d in filter '%s'".formatted(start, input));
+    }
+
+    private static boolean isDelimiter(char c) {
+        return Character.isWhitespace(c) || c == ',' || c == '(' || c == ')';
+    }
+}
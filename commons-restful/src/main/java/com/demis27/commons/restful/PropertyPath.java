@@ -0,0 +1,290 @@
+package com.demis27.commons.restful;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A compiled accessor to a property of a record or a bean, possibly nested, e.g. `address.city`.
+ * Each segment is resolved once, in this order: record component, getter (`getX`, or `isX` for a boolean), public field.
+ * Other methods, e.g. `toString()` or `reset()`, are never called, even when their names match the segment.
+ * Accessors are generated with {@link LambdaMetafactory} when possible, so reading a property costs about as much
+ * as a hand-written lambda. The integral properties of the type itself can also be read without boxing, see
+ * {@link #longGetter()}. Property paths are cached per type.
+ * For example:
+ * PropertyPath&lt;Person&gt; city = PropertyPath.of(Person.class, "address.city");
+ * String value = (String) city.get(person);
+ *
+ * @param <T> The type declaring the property.
+ */
+public final class PropertyPath<T> {
+
+    private static final ClassValue<ConcurrentMap<String, PropertyPath<?>>> CACHE = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<String, PropertyPath<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Class<T> rootType;
+
+    private final String path;
+
+    private final Class<?> type;
+
+    private final Function<T, Object> getter;
+
+    private final ToLongFunction<T> longGetter;
+
+    private PropertyPath(Class<T> rootType, String path, Class<?> type, Function<T, Object> getter, ToLongFunction<T> longGetter) {
+        this.rootType = rootType;
+        this.path = path;
+        this.type = type;
+        this.getter = getter;
+        this.longGetter = longGetter;
+    }
+
+    /**
+     * Returns the accessor to a property of a type.
+     *
+     * @param rootType The type declaring the property.
+     * @param path     The name of the property, segments of nested properties are separated by dots.
+     * @param <T>      The type declaring the property.
+     * @return The property path.
+     * @throws IllegalArgumentException if the path is blank or a segment does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PropertyPath<T> of(Class<T> rootType, String path) {
+        if (path == null || path.isBlank()) {
+            throw new IllegalArgumentException("Property path cannot be null or blank.");
+        }
+        return (PropertyPath<T>) CACHE.get(rootType).computeIfAbsent(path, key -> compile(rootType, key));
+    }
+
+    /**
+     * Reads the property of an element.
+     *
+     * @param element The element to read.
+     * @return The value of the property, null if the element or an intermediate value is null.
+     */
+    public Object get(T element) {
+        return element == null ? null : getter.apply(element);
+    }
+
+    /**
+     * Returns the compiled accessor, which does not accept a null element.
+     * Capturing it in a lambda, instead of calling {@link #get(Object)}, lets the JIT inline the accessor in hot loops.
+     *
+     * @return The accessor of the property.
+     */
+    public Function<T, Object> getter() {
+        return getter;
+    }
+
+    /**
+     * Returns the compiled accessor of a primitive `byte`, `short`, `int` or `long` property of the type itself,
+     * which reads the values without boxing them, e.g. to compare them in hot loops.
+     *
+     * @return The accessor of the property, null if the property is nested, or is not of a primitive integral type.
+     */
+    public ToLongFunction<T> longGetter() {
+        return longGetter;
+    }
+
+    /**
+     * Converts a raw value, e.g. from a filter, to the type of the property.
+     *
+     * @param value The raw value.
+     * @return The typed value.
+     * @throws IllegalArgumentException if the value cannot be converted.
+     */
+    public Object convert(String value) {
+        return QueryParamValues.convert(value, type);
+    }
+
+    /**
+     * @return The type declaring the property.
+     */
+    public Class<T> rootType() {
+        return rootType;
+    }
+
+    /**
+     * @return The path of the property, e.g. `address.city`.
+     */
+    public String path() {
+        return path;
+    }
+
+    /**
+     * @return The type of the property, primitive types are boxed.
+     */
+    public Class<?> type() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return rootType.getSimpleName() + "." + path;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> PropertyPath<T> compile(Class<T> rootType, String path) {
+        String[] segments = path.split("\\.", -1);
+        Function<Object, Object> getter = null;
+        Accessor accessor = null;
+        Class<?> currentType = rootType;
+        for (String segment : segments) {
+            accessor = resolve(currentType, segment, path);
+            getter = getter == null ? accessor.function() : nullSafeChain(getter, accessor.function());
+            currentType = accessor.type();
+        }
+        ToLongFunction<T> longGetter = segments.length == 1 && isIntegral(currentType) ? toLongFunction(accessor) : null;
+        return new PropertyPath<>(rootType, path, QueryParamValues.wrap(currentType), (Function<T, Object>) (Function<?, Object>) getter, longGetter);
+    }
+
+    private static boolean isIntegral(Class<?> type) {
+        return type == long.class || type == int.class || type == short.class || type == byte.class;
+    }
+
+    private static Function<Object, Object> nullSafeChain(Function<Object, Object> first, Function<Object, Object> second) {
+        return element -> {
+            Object value = first.apply(element);
+            return value == null ? null : second.apply(value);
+        };
+    }
+
+    private record Accessor(Class<?> type, Function<Object, Object> function, MethodHandles.Lookup lookup, MethodHandle handle) {
+    }
+
+    private static Accessor resolve(Class<?> type, String name, String path) {
+        if (name.isBlank()) {
+            throw new IllegalArgumentException("Invalid property path '" + path + "' on type " + type.getName());
+        }
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                if (component.getName().equals(name)) {
+                    return accessor(component.getAccessor());
+                }
+            }
+        }
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        Method getter = findGetter(type, "get" + capitalized);
+        if (getter == null) {
+            getter = findGetter(type, "is" + capitalized);
+            if (getter != null && QueryParamValues.wrap(getter.getReturnType()) != Boolean.class) {
+                getter = null;
+            }
+        }
+        if (getter != null) {
+            return accessor(getter);
+        }
+        try {
+            Field field = type.getField(name);
+            if (!Modifier.isStatic(field.getModifiers())) {
+                MethodHandles.Lookup lookup = lookup(field.getDeclaringClass());
+                MethodHandle handle = lookup.unreflectGetter(field);
+                return new Accessor(field.getType(), toFunction(handle), lookup, handle);
+            }
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            // Not a public field, the property does not exist
+        }
+        throw new IllegalArgumentException("Unknown property '" + name + "' in path '" + path + "' on type " + type.getName());
+    }
+
+    private static Method findGetter(Class<?> type, String name) {
+        try {
+            Method method = type.getMethod(name);
+            if (Modifier.isStatic(method.getModifiers()) || method.getReturnType() == void.class || method.getDeclaringClass() == Object.class) {
+                return null;
+            }
+            return method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Accessor accessor(Method method) {
+        try {
+            MethodHandles.Lookup lookup = lookup(method.getDeclaringClass());
+            MethodHandle handle = lookup.unreflect(method);
+            return new Accessor(method.getReturnType(), toFunction(lookup, handle, method), lookup, handle);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access the property accessor " + method, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> toFunction(MethodHandles.Lookup lookup, MethodHandle handle, Method method) {
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(QueryParamValues.wrap(method.getReturnType()), method.getDeclaringClass()));
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // LambdaMetafactory is not available for this method (e.g. in a native image), fall back to the method handle
+            return toFunction(handle);
+        }
+    }
+
+    /**
+     * Generates an accessor returning the integral value as a primitive long, widened from the property type.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> ToLongFunction<T> toLongFunction(Accessor accessor) {
+        MethodHandle handle = accessor.handle();
+        try {
+            CallSite site = LambdaMetafactory.metafactory(accessor.lookup(), "applyAsLong",
+                    MethodType.methodType(ToLongFunction.class),
+                    MethodType.methodType(long.class, Object.class),
+                    handle,
+                    MethodType.methodType(long.class, handle.type().parameterType(0)));
+            return (ToLongFunction<T>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // Not a method, e.g. a public field, or LambdaMetafactory is not available, fall back to the method handle
+            MethodHandle generic = handle.asType(MethodType.methodType(long.class, Object.class));
+            return element -> {
+                try {
+                    return (long) generic.invokeExact(element);
+                } catch (RuntimeException | Error exception) {
+                    throw exception;
+                } catch (Throwable exception) {
+                    throw new IllegalStateException(exception);
+                }
+            };
+        }
+    }
+
+    private static Function<Object, Object> toFunction(MethodHandle handle) {
+        MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return element -> {
+            try {
+                return generic.invokeExact(element);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException | SecurityException e) {
+            return MethodHandles.publicLookup();
+        }
+    }
+}
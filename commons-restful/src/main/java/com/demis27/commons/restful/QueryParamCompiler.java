@@ -0,0 +1,443 @@
+package com.demis27.commons.restful;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles filters and sorts into a {@link Predicate} and a {@link Comparator}, to apply them on data already in memory,
+ * e.g. a cache or the result of a non-JPA source.
+ * The properties are read with {@link PropertyPath}, and the values of the filters are converted to the property types
+ * once, at compile time. Like in SQL, a comparison on a null property is unknown: neither the comparison nor its
+ * negation matches, so `not age eq 1` and `age ne 1` select the same elements.
+ * The primitive integral properties of the type itself are compared without boxing, see {@link PropertyPath#longGetter()}.
+ * For example:
+ * Predicate&lt;Person&gt; predicate = QueryParamCompiler.toPredicate(Person.class, QueryParamFilter.parse("age gt 25"));
+ * Comparator&lt;Person&gt; comparator = QueryParamCompiler.toComparator(Person.class, QueryParamSort.parse("name,age:desc"));
+ * List&lt;Person&gt; result = persons.stream().filter(predicate).sorted(comparator).toList();
+ */
+public final class QueryParamCompiler {
+
+    private QueryParamCompiler() {
+    }
+
+    /**
+     * Compiles a list of filters that must all match into a predicate.
+     *
+     * @param type    The type of the filtered elements.
+     * @param filters The filters, as returned by {@link QueryParamFilter#parse(String)}.
+     * @param <T>     The type of the filtered elements.
+     * @return The predicate, always `true` if the list is null or empty.
+     * @throws IllegalArgumentException if a property does not exist, or a value cannot be converted to the property type.
+     */
+    public static <T> Predicate<T> toPredicate(Class<T> type, List<QueryParamFilter> filters) {
+        return toPredicate(type, FilterExpression.of(filters));
+    }
+
+    /**
+     * Compiles a filter expression into a predicate.
+     *
+     * @param type       The type of the filtered elements.
+     * @param expression The filter expression, see {@link FilterExpression#parse(String)}.
+     * @param <T>        The type of the filtered elements.
+     * @return The predicate.
+     * @throws IllegalArgumentException if a property does not exist, or a value cannot be converted to the property type.
+     */
+    public static <T> Predicate<T> toPredicate(Class<T> type, FilterExpression expression) {
+        return switch (expression) {
+            case FilterExpression.Constant constant -> constant.value() ? element -> true : element -> false;
+            case FilterExpression.Comparison comparison -> toPredicate(type, comparison.filter());
+            case FilterExpression.Not not -> toNegatedPredicate(type, not.operand());
+            case FilterExpression.And and -> allOf(toConjuncts(type, and.operands()));
+            case FilterExpression.Or or -> anyOf(or.operands().stream().map(operand -> toPredicate(type, operand)).toList());
+        };
+    }
+
+    /**
+     * Compiles the operands of a conjunction. The range comparisons on the same primitive integral property, e.g.
+     * `age gt 25, age lt 60`, are fused into one predicate reading the property once, at the position of the first one.
+     */
+    private static <T> List<Predicate<T>> toConjuncts(Class<T> type, List<FilterExpression> operands) {
+        List<Predicate<T>> predicates = new ArrayList<>(operands.size());
+        Map<String, List<QueryParamFilter>> ranges = new HashMap<>();
+        Map<String, Integer> positions = new HashMap<>();
+        for (FilterExpression operand : operands) {
+            if (operand instanceof FilterExpression.Comparison comparison && isLongRange(type, comparison.filter())) {
+                String property = comparison.filter().property();
+                if (!positions.containsKey(property)) {
+                    positions.put(property, predicates.size());
+                    predicates.add(null);
+                }
+                ranges.computeIfAbsent(property, key -> new ArrayList<>()).add(comparison.filter());
+            } else {
+                predicates.add(toPredicate(type, operand));
+            }
+        }
+        ranges.forEach((property, filters) -> predicates.set(positions.get(property), filters.size() == 1
+                ? toPredicate(type, filters.getFirst())
+                : toLongRangePredicate(PropertyPath.of(type, property), filters)));
+        return predicates;
+    }
+
+    private static boolean isLongRange(Class<?> type, QueryParamFilter filter) {
+        return switch (filter.operator()) {
+            case EQUALS, GREATER, GREATER_OR_EQUALS, LESS, LESS_OR_EQUALS, BETWEEN -> PropertyPath.of(type, filter.property()).longGetter() != null;
+            default -> false;
+        };
+    }
+
+    /**
+     * Compiles the intersection of range comparisons on a primitive integral property into inclusive bounds.
+     */
+    private static <T> Predicate<T> toLongRangePredicate(PropertyPath<T> path, List<QueryParamFilter> filters) {
+        long low = Long.MIN_VALUE;
+        long high = Long.MAX_VALUE;
+        boolean empty = false;
+        for (QueryParamFilter filter : filters) {
+            long value = ((Number) path.convert(filter.values().getFirst())).longValue();
+            switch (filter.operator()) {
+                case EQUALS -> {
+                    low = Math.max(low, value);
+                    high = Math.min(high, value);
+                }
+                case GREATER -> {
+                    empty |= value == Long.MAX_VALUE;
+                    low = Math.max(low, value + 1);
+                }
+                case GREATER_OR_EQUALS -> low = Math.max(low, value);
+                case LESS -> {
+                    empty |= value == Long.MIN_VALUE;
+                    high = Math.min(high, value - 1);
+                }
+                case LESS_OR_EQUALS -> high = Math.min(high, value);
+                case BETWEEN -> {
+                    low = Math.max(low, value);
+                    high = Math.min(high, ((Number) path.convert(filter.values().get(1))).longValue());
+                }
+                default -> throw new IllegalStateException("Not a range operator: " + filter.operator());
+            }
+        }
+        if (empty || low > high) {
+            return element -> false;
+        }
+        return toLongRangePredicate(path.longGetter(), low, high);
+    }
+
+    /**
+     * Compiles `min <= value <= max` into a single unsigned comparison, `value - min <= max - min`, like the JIT does
+     * for constant bounds: one branch instead of two, which halves the mispredictions on unsorted values.
+     */
+    private static <T> Predicate<T> toLongRangePredicate(ToLongFunction<T> getter, long min, long max) {
+        long shift = Long.MIN_VALUE - min;
+        long limit = max + shift;
+        return element -> getter.applyAsLong(element) + shift <= limit;
+    }
+
+    /**
+     * Compiles the negation of an expression, with the three-valued logic of SQL: the predicate matches when the expression
+     * is false, and not when it is unknown because of a null property. The negation is pushed down to the comparisons.
+     */
+    private static <T> Predicate<T> toNegatedPredicate(Class<T> type, FilterExpression expression) {
+        return switch (expression) {
+            case FilterExpression.Constant constant -> constant.value() ? element -> false : element -> true;
+            case FilterExpression.Comparison comparison -> {
+                Function<T, Object> getter = PropertyPath.of(type, comparison.filter().property()).getter();
+                Predicate<T> predicate = toPredicate(type, comparison.filter());
+                yield element -> getter.apply(element) != null && !predicate.test(element);
+            }
+            case FilterExpression.Not not -> toPredicate(type, not.operand());
+            case FilterExpression.And and -> anyOf(and.operands().stream().map(operand -> toNegatedPredicate(type, operand)).toList());
+            case FilterExpression.Or or -> allOf(or.operands().stream().map(operand -> toNegatedPredicate(type, operand)).toList());
+        };
+    }
+
+    /**
+     * Compiles a list of sorts into a comparator. Null values are greater than any other value,
+     * so they come last in ascending order and first in descending order.
+     *
+     * @param type  The type of the sorted elements.
+     * @param sorts The sorts, as returned by {@link QueryParamSort#parse(String)}.
+     * @param <T>   The type of the sorted elements.
+     * @return The comparator, considering all elements equal if the list is null or empty.
+     * @throws IllegalArgumentException if a property does not exist or is not comparable.
+     */
+    public static <T> Comparator<T> toComparator(Class<T> type, List<QueryParamSort> sorts) {
+        return toComparator(type, sorts, false);
+    }
+
+    /**
+     * Compiles a list of sorts into a comparator, with the null values first or last in ascending order, e.g. to sort
+     * like a database: H2, MySQL and SQL Server sort the null values first in ascending order, PostgreSQL and Oracle last.
+     *
+     * @param type       The type of the sorted elements.
+     * @param sorts      The sorts, as returned by {@link QueryParamSort#parse(String)}.
+     * @param nullsFirst True if the null values are lower than any other value, so they come first in ascending order
+     *                   and last in descending order.
+     * @param <T>        The type of the sorted elements.
+     * @return The comparator, considering all elements equal if the list is null or empty.
+     * @throws IllegalArgumentException if a property does not exist or is not comparable.
+     */
+    public static <T> Comparator<T> toComparator(Class<T> type, List<QueryParamSort> sorts, boolean nullsFirst) {
+        if (sorts == null || sorts.isEmpty()) {
+            return (first, second) -> 0;
+        }
+        Comparator<T> comparator = null;
+        for (QueryParamSort sort : sorts) {
+            PropertyPath<T> path = comparablePath(type, sort.property());
+            Comparator<T> propertyComparator = path.longGetter() != null
+                    ? toLongComparator(path.longGetter(), sort.order())
+                    : toComparator(path.getter(), sort.order(), nullsFirst ? -1 : 1);
+            comparator = comparator == null ? propertyComparator : thenComparing(comparator, propertyComparator);
+        }
+        return comparator;
+    }
+
+    /**
+     * @param nullOrder 1 if the null values are greater than any other value, -1 if they are lower.
+     */
+    private static <T> Comparator<T> toComparator(Function<T, Object> getter, QueryParamSort.SortOrder order, int nullOrder) {
+        return order == QueryParamSort.SortOrder.DESC
+                ? (first, second) -> compareNulls(getter.apply(second), getter.apply(first), nullOrder)
+                : (first, second) -> compareNulls(getter.apply(first), getter.apply(second), nullOrder);
+    }
+
+    private static <T> Comparator<T> toLongComparator(ToLongFunction<T> getter, QueryParamSort.SortOrder order) {
+        return order == QueryParamSort.SortOrder.DESC
+                ? (first, second) -> Long.compare(getter.applyAsLong(second), getter.applyAsLong(first))
+                : (first, second) -> Long.compare(getter.applyAsLong(first), getter.applyAsLong(second));
+    }
+
+    private static <T> Comparator<T> thenComparing(Comparator<T> first, Comparator<T> second) {
+        return (left, right) -> {
+            int compare = first.compare(left, right);
+            return compare != 0 ? compare : second.compare(left, right);
+        };
+    }
+
+    private static int compareNulls(Object first, Object second, int nullOrder) {
+        if (first == null) {
+            return second == null ? 0 : nullOrder;
+        }
+        if (second == null) {
+            return -nullOrder;
+        }
+        return compare(first, second);
+    }
+
+    /**
+     * Compares two values of the same comparable type, without the interface call for the most common types.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object first, Object second) {
+        if (first instanceof Integer firstInteger && second instanceof Integer secondInteger) {
+            return Integer.compare(firstInteger, secondInteger);
+        }
+        if (first instanceof Long firstLong && second instanceof Long secondLong) {
+            return Long.compare(firstLong, secondLong);
+        }
+        if (first instanceof String firstString && second instanceof String secondString) {
+            return firstString.compareTo(secondString);
+        }
+        return ((Comparable) first).compareTo(second);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Predicate<T> toPredicate(Class<T> type, QueryParamFilter filter) {
+        PropertyPath<T> path = PropertyPath.of(type, filter.property());
+        if (path.longGetter() != null && filter.operator() != QueryParamFilter.FilterOperator.LIKE) {
+            return toLongPredicate(path, filter);
+        }
+        Function<T, Object> getter = path.getter();
+        return switch (filter.operator()) {
+            case EQUALS -> {
+                Object value = path.convert(filter.values().getFirst());
+                if (value instanceof BigDecimal decimal) {
+                    yield element -> getter.apply(element) instanceof BigDecimal actual && actual.compareTo(decimal) == 0;
+                }
+                yield element -> value.equals(getter.apply(element));
+            }
+            case NOT_EQUALS -> {
+                Object value = path.convert(filter.values().getFirst());
+                if (value instanceof BigDecimal decimal) {
+                    yield element -> getter.apply(element) instanceof BigDecimal actual && actual.compareTo(decimal) != 0;
+                }
+                yield element -> {
+                    Object actual = getter.apply(element);
+                    return actual != null && !value.equals(actual);
+                };
+            }
+            case GREATER -> {
+                Comparable value = comparableValue(path, filter.values().getFirst());
+                yield element -> {
+                    Object actual = getter.apply(element);
+                    return actual != null && compare(actual, value) > 0;
+                };
+            }
+            case GREATER_OR_EQUALS -> {
+                Comparable value = comparableValue(path, filter.values().getFirst());
+                yield element -> {
+                    Object actual = getter.apply(element);
+                    return actual != null && compare(actual, value) >= 0;
+                };
+            }
+            case LESS -> {
+                Comparable value = comparableValue(path, filter.values().getFirst());
+                yield element -> {
+                    Object actual = getter.apply(element);
+                    return actual != null && compare(actual, value) < 0;
+                };
+            }
+            case LESS_OR_EQUALS -> {
+                Comparable value = comparableValue(path, filter.values().getFirst());
+                yield element -> {
+                    Object actual = getter.apply(element);
+                    return actual != null && compare(actual, value) <= 0;
+                };
+            }
+            case BETWEEN -> {
+                Comparable low = comparableValue(path, filter.values().get(0));
+                Comparable high = comparableValue(path, filter.values().get(1));
+                yield element -> {
+                    Object actual = getter.apply(element);
+                    return actual != null && compare(actual, low) >= 0 && compare(actual, high) <= 0;
+                };
+            }
+            case IN -> {
+                Collection<Object> values = BigDecimal.class.equals(path.type()) ? new TreeSet<>() : new HashSet<>();
+                filter.values().forEach(value -> values.add(path.convert(value)));
+                yield element -> {
+                    Object actual = getter.apply(element);
+                    return actual != null && values.contains(actual);
+                };
+            }
+            case LIKE -> {
+                Pattern pattern = likeToPattern(filter.values().getFirst());
+                yield element -> {
+                    Object actual = getter.apply(element);
+                    return actual != null && pattern.matcher(actual.toString()).matches();
+                };
+            }
+        };
+    }
+
+    /**
+     * Compiles a comparison on a primitive integral property, never null, without boxing its values.
+     */
+    private static <T> Predicate<T> toLongPredicate(PropertyPath<T> path, QueryParamFilter filter) {
+        ToLongFunction<T> getter = path.longGetter();
+        long[] values = filter.values().stream().mapToLong(value -> ((Number) path.convert(value)).longValue()).toArray();
+        long value = values[0];
+        return switch (filter.operator()) {
+            case EQUALS -> element -> getter.applyAsLong(element) == value;
+            case NOT_EQUALS -> element -> getter.applyAsLong(element) != value;
+            case GREATER -> element -> getter.applyAsLong(element) > value;
+            case GREATER_OR_EQUALS -> element -> getter.applyAsLong(element) >= value;
+            case LESS -> element -> getter.applyAsLong(element) < value;
+            case LESS_OR_EQUALS -> element -> getter.applyAsLong(element) <= value;
+            case BETWEEN -> value > values[1] ? element -> false : toLongRangePredicate(getter, value, values[1]);
+            case IN -> {
+                Arrays.sort(values);
+                yield element -> Arrays.binarySearch(values, getter.applyAsLong(element)) >= 0;
+            }
+            case LIKE -> throw new IllegalStateException("The like operator is not compiled on primitive values");
+        };
+    }
+
+    private static <T> PropertyPath<T> comparablePath(Class<T> type, String property) {
+        PropertyPath<T> path = PropertyPath.of(type, property);
+        if (!Comparable.class.isAssignableFrom(path.type())) {
+            throw new IllegalArgumentException("Property " + path + " of type " + path.type().getName() + " is not comparable");
+        }
+        return path;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable comparableValue(PropertyPath<?> path, String value) {
+        if (!Comparable.class.isAssignableFrom(path.type())) {
+            throw new IllegalArgumentException("Property " + path + " of type " + path.type().getName() + " is not comparable");
+        }
+        return (Comparable) path.convert(value);
+    }
+
+    /**
+     * Converts a SQL like pattern, where `%` matches any sequence of characters and `_` any single character, to a regex.
+     */
+    private static Pattern likeToPattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : like.toCharArray()) {
+            if (c == '%' || c == '_') {
+                if (!literal.isEmpty()) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * Combines the predicates with distinct lambdas for the common arities, so each call site stays monomorphic
+     * and the JIT can inline the whole predicate.
+     */
+    private static <T> Predicate<T> allOf(List<Predicate<T>> predicates) {
+        return switch (predicates.size()) {
+            case 1 -> predicates.getFirst();
+            case 2 -> {
+                Predicate<T> first = predicates.get(0);
+                Predicate<T> second = predicates.get(1);
+                yield element -> first.test(element) && second.test(element);
+            }
+            case 3 -> {
+                Predicate<T> first = predicates.get(0);
+                Predicate<T> second = predicates.get(1);
+                Predicate<T> third = predicates.get(2);
+                yield element -> first.test(element) && second.test(element) && third.test(element);
+            }
+            default -> {
+                Predicate<T> head = allOf(predicates.subList(0, 3));
+                Predicate<T> tail = allOf(predicates.subList(3, predicates.size()));
+                yield element -> head.test(element) && tail.test(element);
+            }
+        };
+    }
+
+    private static <T> Predicate<T> anyOf(List<Predicate<T>> predicates) {
+        return switch (predicates.size()) {
+            case 1 -> predicates.getFirst();
+            case 2 -> {
+                Predicate<T> first = predicates.get(0);
+                Predicate<T> second = predicates.get(1);
+                yield element -> first.test(element) || second.test(element);
+            }
+            case 3 -> {
+                Predicate<T> first = predicates.get(0);
+                Predicate<T> second = predicates.get(1);
+                Predicate<T> third = predicates.get(2);
+                yield element -> first.test(element) || second.test(element) || third.test(element);
+            }
+            default -> {
+                Predicate<T> head = anyOf(predicates.subList(0, 3));
+                Predicate<T> tail = anyOf(predicates.subList(3, predicates.size()));
+                yield element -> head.test(element) || tail.test(element);
+            }
+        };
+    }
+}
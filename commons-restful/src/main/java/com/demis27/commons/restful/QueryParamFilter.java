@@ -55,7 +55,11 @@ public record QueryParamFilter(String property, FilterOperator operator, List<St
         /**
          * Represents a "like" comparison (e.g., `property like values`).
          */
-        LIKE;
+        LIKE,
+        /**
+         * Represents an inclusive range comparison (e.g., `property between low high`).
+         */
+        BETWEEN;
 
         public static FilterOperator parse(String operatorString) {
             return switch (operatorString) {
@@ -67,6 +71,7 @@ public record QueryParamFilter(String property, FilterOperator operator, List<St
                 case "ne" -> NOT_EQUALS;
                 case "in" -> IN;
                 case "like" -> LIKE;
+                case "between" -> BETWEEN;
                 default -> throw new IllegalArgumentException("Unsupported operator: " + operatorString);
             };
         }
@@ -115,7 +120,11 @@ public record QueryParamFilter(String property, FilterOperator operator, List<St
         String operatorString = parts[1];
         List<String> values = Stream.of(Arrays.copyOfRange(parts, 2, parts.length)).toList();
 
-        if (!operatorString.equals("in") && values.size() > 1) {
+        if (operatorString.equals("between") && values.size() != 2) {
+            throw new IllegalArgumentException("Invalid filter format for: '" + filterString + "'. Expected format is property between low high");
+        }
+
+        if (!operatorString.equals("in") && !operatorString.equals("between") && values.size() > 1) {
             throw new IllegalArgumentException("Invalid filter format for: '" + filterString + "'. Expected format is property operator values");
         }
 
@@ -132,6 +141,7 @@ public record QueryParamFilter(String property, FilterOperator operator, List<St
             case "like" -> FilterOperator.LIKE;
             case "in" -> FilterOperator.IN;
             case "ne" -> FilterOperator.NOT_EQUALS;
+            case "between" -> FilterOperator.BETWEEN;
             default -> throw new IllegalArgumentException("Unknown operator: " + operatorString);
         };
 
@@ -15,7 +15,7 @@ import java.util.regex.Pattern;
  */
 public record QueryParamSort(String property, SortOrder order) {
 
-    private static final Pattern SORT_PATTERN = Pattern.compile("(?i)[a-z0-9_]+(?::(?:asc|desc))?(?:,[a-z0-9_]+(?::(?:asc|desc))?)*");
+    private static final Pattern SORT_PATTERN = Pattern.compile("(?i)[a-z0-9_]+(?:\\.[a-z0-9_]+)*(?::(?:asc|desc))?(?:,[a-z0-9_]+(?:\\.[a-z0-9_]+)*(?::(?:asc|desc))?)*");
 
     /**
      * The supported sort orders.
@@ -34,7 +34,7 @@ public record QueryParamSort(String property, SortOrder order) {
     /**
      * Parses a sort string into a list of `Sort` objects.
      * The sort string should be a comma-separated list of individual sort criteria.
-     * Each individual sort criterion should be in the format: `property[:order]`.
+     * Each individual sort criterion should be in the format: `property[:order]`, nested properties are separated by dots.
      * If the order is not specified, it defaults to ascending (ASC).
      * For example:
      * "name,age:desc"
@@ -0,0 +1,102 @@
+package com.demis27.commons.restful;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Converts the raw values of the query params to typed values.
+ */
+final class QueryParamValues {
+
+    private static final Map<Class<?>, Class<?>> WRAPPERS = Map.of(
+            boolean.class, Boolean.class,
+            byte.class, Byte.class,
+            short.class, Short.class,
+            char.class, Character.class,
+            int.class, Integer.class,
+            long.class, Long.class,
+            float.class, Float.class,
+            double.class, Double.class);
+
+    private static final Map<Class<?>, Function<String, Object>> CONVERTERS = Map.ofEntries(
+            Map.entry(String.class, value -> value),
+            Map.entry(Object.class, value -> value),
+            Map.entry(CharSequence.class, value -> value),
+            Map.entry(Boolean.class, QueryParamValues::toBoolean),
+            Map.entry(Byte.class, Byte::valueOf),
+            Map.entry(Short.class, Short::valueOf),
+            Map.entry(Character.class, QueryParamValues::toCharacter),
+            Map.entry(Integer.class, Integer::valueOf),
+            Map.entry(Long.class, Long::valueOf),
+            Map.entry(Float.class, Float::valueOf),
+            Map.entry(Double.class, Double::valueOf),
+            Map.entry(BigDecimal.class, BigDecimal::new),
+            Map.entry(BigInteger.class, BigInteger::new),
+            Map.entry(UUID.class, UUID::fromString),
+            Map.entry(LocalDate.class, LocalDate::parse),
+            Map.entry(LocalTime.class, LocalTime::parse),
+            Map.entry(LocalDateTime.class, LocalDateTime::parse),
+            Map.entry(OffsetDateTime.class, OffsetDateTime::parse),
+            Map.entry(ZonedDateTime.class, ZonedDateTime::parse),
+            Map.entry(Instant.class, Instant::parse));
+
+    private QueryParamValues() {
+    }
+
+    /**
+     * @return The wrapper type of a primitive type, or the type itself.
+     */
+    static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? WRAPPERS.get(type) : type;
+    }
+
+    /**
+     * Converts a raw value to a type.
+     *
+     * @throws IllegalArgumentException if the type is not supported or the value has an invalid format.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object convert(String value, Class<?> type) {
+        if (value == null) {
+            return null;
+        }
+        Class<?> wrapped = wrap(type);
+        try {
+            if (wrapped.isEnum()) {
+                return Enum.valueOf((Class<? extends Enum>) wrapped, value);
+            }
+            Function<String, Object> converter = CONVERTERS.get(wrapped);
+            if (converter == null) {
+                throw new IllegalArgumentException("Unsupported type " + type.getName() + " for value '" + value + "'");
+            }
+            return converter.apply(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cannot convert '" + value + "' to " + type.getSimpleName(), e);
+        }
+    }
+
+    private static Boolean toBoolean(String value) {
+        return switch (value.toLowerCase()) {
+            case "true" -> Boolean.TRUE;
+            case "false" -> Boolean.FALSE;
+            default -> throw new IllegalArgumentException("Cannot convert '" + value + "' to Boolean");
+        };
+    }
+
+    private static Character toCharacter(String value) {
+        if (value.length() != 1) {
+            throw new IllegalArgumentException("Cannot convert '" + value + "' to Character");
+        }
+        return value.charAt(0);
+    }
+}
@@ -0,0 +1,134 @@
+package com.demis27.commons.restful
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.LocalDate
+import java.util.function.Function
+
+class FilterExpressionOptimizerSpec extends Specification {
+
+    static final Map<String, Class<?>> TYPES = [age: int, id: Long, a: Integer, b: Integer, c: Integer, name: String, code: String, zip: String,
+                                                     active: Boolean, uuid: UUID, born: LocalDate]
+
+    static final Function<String, Class<?>> PROPERTY_TYPES = { String property -> TYPES[property] } as Function<String, Class<?>>
+
+    @Unroll
+    def "Should optimize '#filterString' to '#expected'"() {
+        when:
+        def optimized = FilterExpression.parse(filterString).optimize(PROPERTY_TYPES)
+
+        then:
+        optimized == FilterExpression.parse(expected)
+
+        where:
+        filterString                                        || expected
+        "age gt 10, age gt 20"                              || "age gt 20"
+        "age gt 10, age gte 10"                             || "age gt 10"
+        "age lt 10, age lte 20"                             || "age lt 10"
+        "age gte 10, age lte 20"                            || "age between 10 20"
+        "age gt 10, age lte 20"                             || "age gt 10, age lte 20"
+        "age between 10 30, age gte 15"                     || "age between 15 30"
+        "age gte 10, age lte 10"                            || "age eq 10"
+        "id eq 1 or id eq 2"                                || "id in 1 2"
+        "id eq 1 or id in 2 3 or id eq 1"                   || "id in 1 2 3"
+        "id in 1 2 3, id in 2 3 4"                          || "id in 2 3"
+        "id in 1 2 3, id gt 2"                              || "id eq 3"
+        "id in 1 2 3, id ne 2"                              || "id in 1 3"
+        "id in 1 1"                                         || "id eq 1"
+        "age gt 10, age ne 5, age ne 15"                    || "age gt 10, age ne 15"
+        "name eq John, name eq John"                        || "name eq John"
+        "(a eq 1, b eq 2), (c eq 3, a eq 1)"                || "a eq 1, b eq 2, c eq 3"
+        "(a eq 1 or b eq 2) or c eq 3"                      || "a eq 1 or b eq 2 or c eq 3"
+        "not not a eq 1"                                    || "a eq 1"
+        "not a gt 1"                                        || "a lte 1"
+        "not (a like x%)"                                   || "not a like x%"
+        "name gt Alice, name gt Bob"                        || "name gt Alice, name gt Bob"
+        "name like A%, age gte 1, age lte 2"                || "name like A%, age between 1 2"
+    }
+
+    @Unroll
+    def "Should detect the contradiction in '#filterString'"() {
+        when:
+        def optimized = FilterExpression.parse(filterString).optimize(PROPERTY_TYPES)
+
+        then:
+        optimized.isContradiction()
+        optimized == FilterExpression.NEVER
+
+        where:
+        filterString << [
+                "age gt 10, age gt 20, id eq 1, id eq 2",
+                "active eq true, active eq FALSE",
+                "born gt 2020-01-01, born lt 2019-12-31",
+                "age gt 20, age lt 10",
+                "age gt 10, age lte 10",
+                "age between 20 10",
+                "id in 1 2, id in 3 4",
+                "id eq 1, id ne 1",
+                "id eq 5, age gt 3, id gt 7",
+                "(id eq 1, id eq 2) or (age gt 3, age lt 1)"
+        ]
+    }
+
+    def "Should drop a contradicting branch of a disjunction"() {
+        expect:
+        FilterExpression.parse("(id eq 1, id eq 2) or name eq John").optimize(PROPERTY_TYPES) == FilterExpression.parse("name eq John")
+    }
+
+    def "Should reduce a tautology"() {
+        expect:
+        FilterExpression.parse("not (id eq 1, id eq 2)").optimize(PROPERTY_TYPES).isTautology()
+    }
+
+    @Unroll
+    def "Should keep the values of '#filterString' that are only numerically equal when the property is not numeric"() {
+        expect:
+        FilterExpression.parse(filterString).optimize(PROPERTY_TYPES) == expected
+
+        where:
+        filterString              || expected
+        "code eq 1 or code eq 01" || FilterExpression.parse("code in 1 01")
+        "code in 1 01 1"          || FilterExpression.parse("code in 1 01")
+        "code eq 1, code eq 01"   || FilterExpression.parse("code eq 1, code eq 01")
+        "zip lt 9, zip gt 10"     || FilterExpression.parse("zip lt 9, zip gt 10")
+        "zip between 9 10"        || FilterExpression.parse("zip between 9 10")
+        "zip gte 5, zip lte 5"    || FilterExpression.parse("zip eq 5")
+        "id eq 1 or id eq 01"     || FilterExpression.parse("id eq 1")
+        "id eq 1, id ne 01"       || FilterExpression.NEVER
+    }
+
+    @Unroll
+    def "Should only fold the identical values of '#filterString' when the property types are unknown"() {
+        expect:
+        FilterExpression.parse(filterString).optimize() == expected
+
+        where:
+        filterString                 || expected
+        "code eq 1 or code eq 01"    || FilterExpression.parse("code in 1 01")
+        "code eq 1, code eq 01"      || FilterExpression.parse("code eq 1, code eq 01")
+        "code eq 1, code ne 01"      || FilterExpression.parse("code eq 1, code ne 01")
+        "zip lt 9, zip gt 10"        || FilterExpression.parse("zip lt 9, zip gt 10")
+        "age gt 10, age gt 20"       || FilterExpression.parse("age gt 10, age gt 20")
+        "id in 1 1 2"                || FilterExpression.parse("id in 1 2")
+        "name eq John, name eq Jane" || FilterExpression.parse("name eq John, name eq Jane")
+        "id eq 1, id eq 2"           || FilterExpression.parse("id eq 1, id eq 2")
+        "age gte 10, age lte 10"     || FilterExpression.parse("age eq 10")
+    }
+
+    @Unroll
+    def "Should compare the typed values of '#filterString'"() {
+        expect:
+        FilterExpression.parse(filterString).optimize(PROPERTY_TYPES) == FilterExpression.parse(expected)
+
+        where:
+        filterString                                                                                     || expected
+        "active eq true, active eq TRUE"                                                                 || "active eq true"
+        "uuid eq 3f2504e0-4f89-11d3-9a0c-0305e82c3301, uuid eq 3F2504E0-4F89-11D3-9A0C-0305E82C3301"     || "uuid eq 3f2504e0-4f89-11d3-9a0c-0305e82c3301"
+        "born gte 2020-01-01, born lte 2020-12-31"                                                       || "born between 2020-01-01 2020-12-31"
+        "code eq A, code eq a"                                                                           || "code eq A, code eq a"
+        "name eq John, name eq Jane"                                                                     || "name eq John, name eq Jane"
+        "code in A B, code ne a"                                                                         || "code in A B, code ne a"
+        "code in A B, code ne A"                                                                         || "code in A B, code ne A"
+    }
+}
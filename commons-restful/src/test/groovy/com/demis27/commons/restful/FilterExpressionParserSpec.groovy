@@ -0,0 +1,129 @@
+package com.demis27.commons.restful
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static com.demis27.commons.restful.QueryParamFilter.FilterOperator.*
+
+class FilterExpressionParserSpec extends Specification {
+
+    static comparison(String property, QueryParamFilter.FilterOperator operator, String... values) {
+        new FilterExpression.Comparison(new QueryParamFilter(property, operator, values.toList()))
+    }
+
+    def "Should parse a single comparison"() {
+        when:
+        def expression = FilterExpression.parse("name eq John")
+
+        then:
+        expression == comparison("name", EQUALS, "John")
+    }
+
+    def "Should parse comma and 'and' as a conjunction"() {
+        when:
+        def expression = FilterExpression.parse(filterString)
+
+        then:
+        expression == new FilterExpression.And([comparison("name", EQUALS, "John"), comparison("age", GREATER, "25")])
+
+        where:
+        filterString << ["name eq John,age gt 25", "name eq John and age gt 25", "name eq John AND age gt 25"]
+    }
+
+    def "Should give precedence to the conjunction over the disjunction"() {
+        when:
+        def expression = FilterExpression.parse("a eq 1, b eq 2 or c eq 3")
+
+        then:
+        expression == new FilterExpression.Or([
+                new FilterExpression.And([comparison("a", EQUALS, "1"), comparison("b", EQUALS, "2")]),
+                comparison("c", EQUALS, "3")])
+    }
+
+    def "Should parse parentheses and negation"() {
+        when:
+        def expression = FilterExpression.parse("not (region eq EU or region eq NA), status in OPEN PENDING")
+
+        then:
+        expression == new FilterExpression.And([
+                new FilterExpression.Not(new FilterExpression.Or([comparison("region", EQUALS, "EU"), comparison("region", EQUALS, "NA")])),
+                comparison("status", IN, "OPEN", "PENDING")])
+    }
+
+    def "Should parse between and quoted values"() {
+        when:
+        def expression = FilterExpression.parse("age between 18 65, name eq 'Doe, John (O''Neil) or not'")
+
+        then:
+        expression == new FilterExpression.And([comparison("age", BETWEEN, "18", "65"), comparison("name", EQUALS, "Doe, John (O'Neil) or not")])
+    }
+
+    @Unroll
+    def "Should keep the apostrophe inside a word in '#filterString'"() {
+        when:
+        def expression = FilterExpression.parse(filterString)
+
+        then:
+        expression == expected
+
+        where:
+        filterString                                  || expected
+        "name eq O'Neil"                              || comparison("name", EQUALS, "O'Neil")
+        "name eq Côtes-d'Armor"                       || comparison("name", EQUALS, "Côtes-d'Armor")
+        "name in O'Neil D'Arcy, region eq 'Doe, John'" || new FilterExpression.And([comparison("name", IN, "O'Neil", "D'Arcy"), comparison("region", EQUALS, "Doe, John")])
+    }
+
+    def "Should stop the values of 'in' at a keyword"() {
+        when:
+        def expression = FilterExpression.parse("status in OPEN PENDING or age lt 3")
+
+        then:
+        expression == new FilterExpression.Or([comparison("status", IN, "OPEN", "PENDING"), comparison("age", LESS, "3")])
+    }
+
+    @Unroll
+    def "Should throw exception for invalid filter string '#filterString'"() {
+        when:
+        FilterExpression.parse(filterString)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        filterString << [
+                null,
+                "",
+                " ",
+                " , ",
+                "firstname eq ",
+                "firstname eq John extra",
+                "firstname foo John",
+                "firstname eq John,",
+                "(firstname eq John",
+                "firstname eq John)",
+                "age between 18",
+                "name eq 'John",
+                "not",
+                "a eq 1 or"
+        ]
+    }
+
+    def "Should compile a flat expression to filters"() {
+        expect:
+        FilterExpression.parse("name eq John,age gt 25").toFilters() == QueryParamFilter.parse("name eq John,age gt 25")
+        FilterExpression.of(QueryParamFilter.parse("name eq John,age gt 25")) == FilterExpression.parse("name eq John,age gt 25")
+        FilterExpression.ALWAYS.toFilters() == []
+    }
+
+    def "Should refuse to compile a non flat expression to filters"() {
+        given:
+        def expression = FilterExpression.parse("name eq John or age gt 25")
+
+        when:
+        expression.toFilters()
+
+        then:
+        !expression.isFlat()
+        thrown(IllegalStateException)
+    }
+}
@@ -0,0 +1,114 @@
+package com.demis27.commons.restful
+
+import spock.lang.Specification
+
+import java.time.LocalDate
+
+class PropertyPathSpec extends Specification {
+
+    static record Address(String city, int zipCode) {}
+
+    static record Person(String name, int age, LocalDate birthDate, Address address) {}
+
+    static class Bean {
+        String name
+        boolean active
+        public Integer score
+        public long count
+        short rank
+        int resets
+
+        void reset() {
+            resets++
+        }
+
+        String describe() {
+            name
+        }
+
+        Integer isScored() {
+            score
+        }
+    }
+
+    def "should read a record component"() {
+        expect:
+        PropertyPath.of(Person, "name").get(new Person("John", 42, null, null)) == "John"
+        PropertyPath.of(Person, "age").type() == Integer
+    }
+
+    def "should read the primitive integral properties without boxing"() {
+        given:
+        def person = new Person("John", 42, null, new Address("Paris", 75000))
+        def bean = new Bean(count: 7L, rank: 3 as short)
+
+        expect:
+        PropertyPath.of(Person, "age").longGetter().applyAsLong(person) == 42L
+        PropertyPath.of(Bean, "count").longGetter().applyAsLong(bean) == 7L
+        PropertyPath.of(Bean, "rank").longGetter().applyAsLong(bean) == 3L
+        PropertyPath.of(Person, "address.zipCode").longGetter() == null
+        PropertyPath.of(Bean, "score").longGetter() == null
+        PropertyPath.of(Person, "name").longGetter() == null
+    }
+
+    def "should read a nested property and return null for a null intermediate value"() {
+        given:
+        def path = PropertyPath.of(Person, "address.city")
+
+        expect:
+        path.get(new Person("John", 42, null, new Address("Paris", 75000))) == "Paris"
+        path.get(new Person("John", 42, null, null)) == null
+        path.type() == String
+    }
+
+    def "should read a bean getter, a boolean getter and a public field"() {
+        given:
+        def bean = new Bean(name: "John", active: true, score: 12)
+
+        expect:
+        PropertyPath.of(Bean, "name").get(bean) == "John"
+        PropertyPath.of(Bean, "active").get(bean) == true
+        PropertyPath.of(Bean, "score").get(bean) == 12
+    }
+
+    def "should cache the property paths"() {
+        expect:
+        PropertyPath.of(Person, "address.city").is(PropertyPath.of(Person, "address.city"))
+    }
+
+    def "should convert a raw value to the property type"() {
+        expect:
+        PropertyPath.of(Person, "age").convert("42") == 42
+        PropertyPath.of(Person, "birthDate").convert("2000-01-31") == LocalDate.of(2000, 1, 31)
+    }
+
+    def "should throw exception for an invalid path '#path'"() {
+        when:
+        PropertyPath.of(Person, path)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        path << [null, "", "unknown", "address.unknown", "address..city"]
+    }
+
+    def "should not call the methods that are not getters, such as '#path'"() {
+        when:
+        PropertyPath.of(Bean, path)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        path << ["hashCode", "toString", "reset", "describe", "scored", "class"]
+    }
+
+    def "should throw exception for an invalid value"() {
+        when:
+        PropertyPath.of(Person, "age").convert("forty")
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,143 @@
+package com.demis27.commons.restful
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.LocalDate
+
+class QueryParamCompilerSpec extends Specification {
+
+    enum Status { ACTIVE, CLOSED }
+
+    static record Address(String city) {}
+
+    static record Person(int id, String name, Integer age, Status status, LocalDate birthDate, BigDecimal balance, Address address) {}
+
+    static persons = [
+            new Person(1, "John", 42, Status.ACTIVE, LocalDate.of(1983, 5, 1), new BigDecimal("10.50"), new Address("Paris")),
+            new Person(2, "Jane", 35, Status.CLOSED, LocalDate.of(1990, 1, 15), new BigDecimal("0"), new Address("London")),
+            new Person(3, "Jack", null, Status.ACTIVE, null, null, null),
+            new Person(4, "Jill", 35, Status.ACTIVE, LocalDate.of(1990, 7, 4), new BigDecimal("10.5"), new Address("Paris"))
+    ]
+
+    @Unroll
+    def "should filter with '#filterString'"() {
+        when:
+        def predicate = QueryParamCompiler.toPredicate(Person, QueryParamFilter.parse(filterString))
+
+        then:
+        persons.findAll { predicate.test(it) }*.id == expectedIds
+
+        where:
+        filterString                        || expectedIds
+        "name eq John"                      || [1]
+        "name ne John"                      || [2, 3, 4]
+        "age gt 35"                         || [1]
+        "age gte 35"                        || [1, 2, 4]
+        "age lt 40"                         || [2, 4]
+        "age lte 35"                        || [2, 4]
+        "age between 30 40"                 || [2, 4]
+        "id in 1 3 5"                       || [1, 3]
+        "id eq 2"                           || [2]
+        "id ne 2"                           || [1, 3, 4]
+        "id gt 2"                           || [3, 4]
+        "id gte 2"                          || [2, 3, 4]
+        "id lt 2"                           || [1]
+        "id lte 2"                          || [1, 2]
+        "id between 2 3"                    || [2, 3]
+        "id between 3 2"                    || []
+        "id gt 1,id lt 4"                   || [2, 3]
+        "id gte 2,id lte 2"                 || [2]
+        "id gt 3,id lt 2"                   || []
+        "id gt 1,name ne Jane,id lt 4"      || [3]
+        "id between 1 4,id eq 2"            || [2]
+        "status eq ACTIVE"                  || [1, 3, 4]
+        "name like J%n%"                    || [1, 2]
+        "name like J_ck"                    || [3]
+        "birthDate gte 1990-01-01"          || [2, 4]
+        "balance eq 10.5"                   || [1, 4]
+        "address.city eq Paris"             || [1, 4]
+        "address.city eq Paris,age gt 40"   || [1]
+    }
+
+    def "should filter with an expression"() {
+        when:
+        def predicate = QueryParamCompiler.toPredicate(Person, FilterExpression.parse("(address.city eq London or age gt 40), not id eq 2"))
+
+        then:
+        persons.findAll { predicate.test(it) }*.id == [1]
+    }
+
+    @Unroll
+    def "should not match a null property with the negation of '#filterString'"() {
+        when:
+        def predicate = QueryParamCompiler.toPredicate(Person, FilterExpression.parse(filterString))
+
+        then:
+        persons.findAll { predicate.test(it) }*.id == expectedIds
+
+        where:
+        filterString                                  || expectedIds
+        "not age eq 42"                               || [2, 4]
+        "age ne 42"                                   || [2, 4]
+        "not address.city eq Paris"                   || [2]
+        "not (age eq 42 or name eq Jane)"             || [4]
+        "not (age eq 42, name eq John)"               || [2, 3, 4]
+        "not (age eq 42, name eq Jack)"               || [1, 2, 4]
+        "not not age eq 42"                           || [1]
+        "not (id gt 1, id lt 4)"                      || [1, 4]
+        "not (age gt 40 or not balance eq 0)"         || [2]
+    }
+
+    def "should accept everything without filter"() {
+        expect:
+        persons.findAll { QueryParamCompiler.toPredicate(Person, []).test(it) }.size() == 4
+        persons.findAll { QueryParamCompiler.toPredicate(Person, FilterExpression.NEVER).test(it) }.isEmpty()
+    }
+
+    def "should throw exception for an invalid filter"() {
+        when:
+        QueryParamCompiler.toPredicate(Person, QueryParamFilter.parse(filterString))
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        filterString << ["unknown eq 1", "age gt old", "status eq OPEN", "address gt 1"]
+    }
+
+    @Unroll
+    def "should sort with '#sortString'"() {
+        when:
+        def comparator = QueryParamCompiler.toComparator(Person, QueryParamSort.parse(sortString))
+
+        then:
+        persons.toSorted(comparator)*.id == expectedIds
+
+        where:
+        sortString           || expectedIds
+        "name"               || [3, 2, 4, 1]
+        "name:desc"          || [1, 4, 2, 3]
+        "age,name"           || [2, 4, 1, 3]
+        "age:desc,name:desc" || [3, 1, 4, 2]
+        "address.city,id"    || [2, 1, 4, 3]
+        "id:desc"            || [4, 3, 2, 1]
+        "status,id:desc"     || [4, 3, 1, 2]
+    }
+
+    def "should sort the null values first with '#sortString'"() {
+        expect:
+        persons.toSorted(QueryParamCompiler.toComparator(Person, QueryParamSort.parse(sortString), true))*.id == expectedIds
+
+        where:
+        sortString           || expectedIds
+        "age,name"           || [3, 2, 4, 1]
+        "age:desc,name:desc" || [1, 4, 2, 3]
+        "name"               || [3, 2, 4, 1]
+    }
+
+    def "should keep the order without sort"() {
+        expect:
+        persons.toSorted(QueryParamCompiler.toComparator(Person, []))*.id == [1, 2, 3, 4]
+    }
+}
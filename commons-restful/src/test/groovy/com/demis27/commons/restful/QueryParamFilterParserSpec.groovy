@@ -48,6 +48,14 @@ class QueryParamFilterParserSpec extends Specification {
         filters[1].values[0] == "Doe"
     }
 
+    def "Should parse a between filter"() {
+        when:
+        def filters = QueryParamFilter.parse("age between 18 65")
+
+        then:
+        filters == [new QueryParamFilter("age", QueryParamFilter.FilterOperator.BETWEEN, ["18", "65"])]
+    }
+
     @Unroll
     def "Should throw exception for invalid filter string '#filterString'"() {
         when: "An invalid string is parsed"
@@ -68,7 +76,8 @@ class QueryParamFilterParserSpec extends Specification {
                 " eq John",
                 "firstname  John",
                 "firstname eq ",
-                "firstname eq John,   "
+                "firstname eq John,   ",
+                "age between 18"
         ]
     }
 }
@@ -37,6 +37,7 @@ class QueryParamSortParserSpec extends Specification {
         "firstName:DESC"  | new QueryParamSort("firstName", QueryParamSort.SortOrder.DESC)
         "first_name:DESC" | new QueryParamSort("first_name", QueryParamSort.SortOrder.DESC)
         "addressLine1:DESC" | new QueryParamSort("addressLine1", QueryParamSort.SortOrder.DESC)
+        "address.city:desc" | new QueryParamSort("address.city", QueryParamSort.SortOrder.DESC)
     }
 
     def 'parse sort without order'() {
@@ -73,6 +74,6 @@ class QueryParamSortParserSpec extends Specification {
         e.message == "Bad format of the sorts string '$sortsAsString'"
 
         where:
-        sortsAsString << [null, "", " ", "firstname:toto", "firstname:asc,lastname:bad", ",firstname", "firstname,", "firstname,,lastname", ":asc", " , "]
+        sortsAsString << [null, "", " ", "firstname:toto", "firstname:asc,lastname:bad", ",firstname", "firstname,", "firstname,,lastname", ":asc", " , ", "address.", ".city", "address..city"]
     }
 }